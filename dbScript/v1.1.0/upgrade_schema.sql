@@ -0,0 +1,48 @@
+-- ============================================
+-- 指标异动根因定位系统 - 数据库升级脚本
+-- Version: 1.1.0
+-- Date: 2026-10-18
+-- 变更：新增连续周期归因任务类型及节点序列结果表；新增维度归因模式；任务记录执行时的归因树版本；结果表新增乐观锁版本号
+-- ============================================
+
+USE metric_attribution;
+
+-- ============================================
+-- 1. 分析任务表新增任务类型
+-- ============================================
+ALTER TABLE `t_analysis_task`
+  ADD COLUMN `task_type` VARCHAR(20) NOT NULL DEFAULT 'SINGLE' COMMENT '任务类型：SINGLE-单次归因，ROLLING-连续周期归因（基准日期/对比日期为区间起止）' AFTER `tree_name`;
+
+-- ============================================
+-- 2. 连续周期归因结果表
+-- ============================================
+CREATE TABLE IF NOT EXISTS `t_attribution_series_result` (
+  `task_id` VARCHAR(100) NOT NULL COMMENT '任务ID',
+  `node_seq` INT NOT NULL COMMENT '节点序号（树的先序遍历顺序）',
+  `node_id` VARCHAR(100) NOT NULL COMMENT '节点ID',
+  `parent_node_id` VARCHAR(100) DEFAULT NULL COMMENT '父节点ID，根节点为空',
+  `series_data` MEDIUMTEXT NOT NULL COMMENT '节点指标序列（JSON格式）：各周期指标值及相邻周期增量、增量率、贡献度',
+  `create_time` DATETIME NOT NULL COMMENT '创建时间',
+  PRIMARY KEY (`task_id`, `node_seq`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_bin COMMENT='连续周期归因结果表';
+
+-- ============================================
+-- 3. 分析任务表新增维度归因模式
+-- ============================================
+ALTER TABLE `t_analysis_task`
+  ADD COLUMN `dimension_mode` VARCHAR(20) NOT NULL DEFAULT 'EAGER' COMMENT '维度归因模式：EAGER-任务执行时完成，LAZY-查询节点时按需计算' AFTER `contribution_threshold`;
+
+-- ============================================
+-- 4. 分析任务表记录执行时的归因树版本（按需维度归因据此判断树配置是否已变更）
+-- ============================================
+ALTER TABLE `t_analysis_task`
+  ADD COLUMN `tree_version` INT DEFAULT NULL COMMENT '任务执行时归因树的配置版本号' AFTER `tree_name`,
+  ADD COLUMN `tree_update_time` DATETIME DEFAULT NULL COMMENT '任务执行时归因树的更新时间' AFTER `tree_version`;
+
+-- ============================================
+-- 5. 归因结果表新增版本号（按需维度归因并发写回时的乐观锁）
+-- ============================================
+ALTER TABLE `t_attribution_result`
+  ADD COLUMN `version` INT NOT NULL DEFAULT 1 COMMENT '结果版本号，每次更新加一' AFTER `result_tree`;
+
+SELECT '数据库升级完成！' AS '';
@@ -0,0 +1,63 @@
+package cn.webank.dosconfig.benchmark;
+
+import cn.webank.dosconfig.entity.attribution.dto.response.DimensionAttributionItemDTO;
+import cn.webank.dosconfig.service.attribution.AdtributorCalculator;
+import cn.webank.dosconfig.service.attribution.DimensionSlice;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 单维度 Adtributor 计算。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class AdtributorCalculatorBenchmark {
+
+    @Param({"10", "1000", "100000"})
+    public int dimensionValueCount;
+
+    @Param({"20"})
+    public int maxResultSize;
+
+    @Param({"DECIMAL", "PRIMITIVE"})
+    public AdtributorCalculator.ComputationMode mode;
+
+    private AdtributorCalculator calculator;
+    private final BigDecimal epThreshold = new BigDecimal("0.1");
+    private final BigDecimal epTotalThreshold = new BigDecimal("0.67");
+    private Map<String, BigDecimal> baselineValues;
+    private Map<String, BigDecimal> compareValues;
+    private DimensionSlice slice;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        calculator = new AdtributorCalculator(new BigDecimal("0.000001"), mode);
+        List<Map<String, BigDecimal>> slices = BenchmarkData.dimensionSlices(dimensionValueCount);
+        baselineValues = slices.get(0);
+        compareValues = slices.get(1);
+        slice = DimensionSlice.of(baselineValues, compareValues);
+    }
+
+    @Benchmark
+    public List<DimensionAttributionItemDTO> calculate() {
+        return calculator.calculate("dim_a", compareValues, baselineValues, epThreshold, epTotalThreshold, maxResultSize);
+    }
+
+    @Benchmark
+    public List<DimensionAttributionItemDTO> calculateSlice() {
+        return calculator.calculate("dim_a", slice, epThreshold, epTotalThreshold, maxResultSize);
+    }
+}
@@ -0,0 +1,175 @@
+package cn.webank.dosconfig.benchmark;
+
+import cn.webank.dosconfig.entity.FilterCondition;
+import cn.webank.dosconfig.entity.attribution.dto.response.AttributionTreeResultNodeDTO;
+import cn.webank.dosconfig.entity.attribution.dto.response.DimensionAttributionItemDTO;
+import cn.webank.dosconfig.entity.attribution.dto.response.MetricTreeNodeDTO;
+import cn.webank.dosconfig.enums.DimensionAttributionStatus;
+import cn.webank.dosconfig.enums.EOperator;
+import cn.webank.dosconfig.enums.OperationType;
+import cn.webank.dosconfig.service.attribution.MetricSeries;
+import cn.webank.dosconfig.service.attribution.NodeMetricComputationEngine;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * 基准测试数据构造，固定随机种子保证各次运行输入一致。
+ */
+final class BenchmarkData {
+
+    private static final int TREE_FAN_OUT = 4;
+    private static final long SEED = 42L;
+
+    private BenchmarkData() {
+    }
+
+    /**
+     * 构造单维度下基准期、对比期的维度切片，取值长尾分布，约 10% 的取值只出现在其中一期。
+     */
+    static List<Map<String, BigDecimal>> dimensionSlices(int valueCount) {
+        SplittableRandom random = new SplittableRandom(SEED);
+        Map<String, BigDecimal> baseline = new HashMap<>(valueCount * 2);
+        Map<String, BigDecimal> compare = new HashMap<>(valueCount * 2);
+        for (int i = 0; i < valueCount; i++) {
+            String value = "value_" + i;
+            double base = 1_000_000D / (i + 1);
+            double roll = random.nextDouble();
+            if (roll >= 0.05D) {
+                baseline.put(value, BigDecimal.valueOf(Math.round(base * (0.8D + 0.4D * random.nextDouble()))));
+            }
+            if (roll < 0.05D || roll >= 0.1D) {
+                compare.put(value, BigDecimal.valueOf(Math.round(base * (0.8D + 0.4D * random.nextDouble()))));
+            }
+        }
+        return List.of(baseline, compare);
+    }
+
+    /**
+     * 按堆式编号构造完全 {@value #TREE_FAN_OUT} 叉指标树，非叶子节点使用指定运算类型，op 为 null 时四种运算轮换。
+     */
+    static MetricTreeNodeDTO metricTree(int nodeCount, OperationType op) {
+        return metricTreeNode(0, nodeCount, op);
+    }
+
+    private static MetricTreeNodeDTO metricTreeNode(int index, int nodeCount, OperationType op) {
+        List<MetricTreeNodeDTO> children = new ArrayList<>(TREE_FAN_OUT);
+        for (int child = index * TREE_FAN_OUT + 1; child <= index * TREE_FAN_OUT + TREE_FAN_OUT && child < nodeCount; child++) {
+            children.add(metricTreeNode(child, nodeCount, op));
+        }
+        OperationType nodeOp = op != null ? op : OperationType.values()[index % OperationType.values().length];
+        return new MetricTreeNodeDTO(
+                "node_" + index,
+                "节点" + index,
+                "metric_" + index,
+                nodeOp == OperationType.DIV,
+                children.isEmpty() ? null : nodeOp.name(),
+                List.of("dim_a", "dim_b"),
+                null,
+                children.isEmpty() ? null : children
+        );
+    }
+
+    static Map<String, NodeMetricComputationEngine.MetricValue> metricValues(int nodeCount) {
+        SplittableRandom random = new SplittableRandom(SEED);
+        Map<String, NodeMetricComputationEngine.MetricValue> values = new HashMap<>(nodeCount * 2);
+        for (int i = 0; i < nodeCount; i++) {
+            double base = 1000D + random.nextDouble() * 100_000D;
+            values.put("metric_" + i, new NodeMetricComputationEngine.MetricValue(
+                    BigDecimal.valueOf(Math.round(base)),
+                    BigDecimal.valueOf(Math.round(base * (0.7D + 0.6D * random.nextDouble())))));
+        }
+        return values;
+    }
+
+    /**
+     * 构造 nodeCount 个指标在 periodCount 个连续自然日上的取值矩阵，逐日随机游走。
+     */
+    static MetricSeries metricSeries(int nodeCount, int periodCount) {
+        SplittableRandom random = new SplittableRandom(SEED);
+        List<LocalDate> periods = new ArrayList<>(periodCount);
+        for (int i = 0; i < periodCount; i++) {
+            periods.add(LocalDate.of(2025, 9, 1).plusDays(i));
+        }
+        Map<String, double[]> values = new HashMap<>(nodeCount * 2);
+        for (int i = 0; i < nodeCount; i++) {
+            double[] series = new double[periodCount];
+            double value = 1000D + random.nextDouble() * 100_000D;
+            for (int k = 0; k < periodCount; k++) {
+                series[k] = Math.round(value);
+                value *= 0.85D + 0.3D * random.nextDouble();
+            }
+            values.put("metric_" + i, series);
+        }
+        return new MetricSeries(periods, values);
+    }
+
+    /**
+     * 构造全局过滤条件：predicateCount 个等值 / IN 谓词组成的 AND，其中夹杂嵌套 AND 与重复谓词，模拟配置中的冗余写法。
+     */
+    static FilterCondition globalFilter(int predicateCount) {
+        List<FilterCondition> predicates = new ArrayList<>(predicateCount);
+        for (int i = 0; i < predicateCount; i++) {
+            FilterCondition predicate = i % 3 == 0
+                    ? FilterCondition.operation("dim_" + i, EOperator.IN, List.of("v" + (i + 2), "v" + (i + 1), "v" + i))
+                    : FilterCondition.operation("dim_" + i, EOperator.EQ, "v" + i);
+            predicates.add(i % 5 == 0 ? FilterCondition.and(List.of(predicate)) : predicate);
+        }
+        if (predicateCount > 1) {
+            predicates.add(predicates.get(1));
+        }
+        return FilterCondition.and(predicates);
+    }
+
+    static FilterCondition listFilter() {
+        return FilterCondition.operation("list_manage_raw_data.list_id", EOperator.EQ, "list_001");
+    }
+
+    /**
+     * 构造结果树，每个节点携带 itemsPerNode 条维度归因明细。
+     */
+    static AttributionTreeResultNodeDTO resultTree(int nodeCount, int itemsPerNode) {
+        return resultTreeNode(0, nodeCount, itemsPerNode);
+    }
+
+    private static AttributionTreeResultNodeDTO resultTreeNode(int index, int nodeCount, int itemsPerNode) {
+        List<AttributionTreeResultNodeDTO> children = new ArrayList<>(TREE_FAN_OUT);
+        for (int child = index * TREE_FAN_OUT + 1; child <= index * TREE_FAN_OUT + TREE_FAN_OUT && child < nodeCount; child++) {
+            children.add(resultTreeNode(child, nodeCount, itemsPerNode));
+        }
+        List<DimensionAttributionItemDTO> items = new ArrayList<>(itemsPerNode);
+        for (int i = 0; i < itemsPerNode; i++) {
+            items.add(new DimensionAttributionItemDTO(
+                    "dim_" + (i % 3),
+                    "value_" + i,
+                    new BigDecimal("12345.678"),
+                    new BigDecimal("23456.789"),
+                    new BigDecimal("11111.111"),
+                    new BigDecimal("0.12345678"),
+                    new BigDecimal("0.00123456"),
+                    i + 1
+            ));
+        }
+        return new AttributionTreeResultNodeDTO(
+                "node_" + index,
+                "节点" + index,
+                "metric_" + index,
+                Boolean.FALSE,
+                children.isEmpty() ? null : OperationType.ADD.name(),
+                new BigDecimal("1234567.89"),
+                new BigDecimal("1334567.89"),
+                new BigDecimal("100000.00"),
+                new BigDecimal("0.07493"),
+                new BigDecimal("0.25"),
+                new BigDecimal("0.0625"),
+                DimensionAttributionStatus.COMPLETED,
+                items,
+                children
+        );
+    }
+}
@@ -0,0 +1,44 @@
+package cn.webank.dosconfig.benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+/**
+ * 基准测试入口。参数与 JMH 命令行一致（如 {@code Adtributor -p dimensionValueCount=1000}），
+ * 未指定时使用本项目的默认配置：单 fork、3 轮预热、5 轮测量、开启 GC profiler 输出分配速率，结果写入 target/jmh-result.json。
+ */
+public final class BenchmarkRunner {
+
+    private BenchmarkRunner() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        CommandLineOptions commandLine = new CommandLineOptions(args);
+        ChainedOptionsBuilder builder = new OptionsBuilder().parent(commandLine);
+        if (commandLine.getIncludes().isEmpty()) {
+            builder.include(".*Benchmark.*");
+        }
+        if (!commandLine.getForkCount().hasValue()) {
+            builder.forks(1);
+        }
+        if (!commandLine.getWarmupIterations().hasValue()) {
+            builder.warmupIterations(3).warmupTime(TimeValue.seconds(1));
+        }
+        if (!commandLine.getMeasurementIterations().hasValue()) {
+            builder.measurementIterations(5).measurementTime(TimeValue.seconds(2));
+        }
+        if (commandLine.getProfilers().isEmpty()) {
+            builder.addProfiler(GCProfiler.class);
+        }
+        if (!commandLine.getResult().hasValue()) {
+            builder.resultFormat(ResultFormatType.JSON).result("target/jmh-result.json");
+        }
+        builder.jvmArgsAppend("-Dlogback.configurationFile=logback-jmh.xml");
+        new Runner(builder.build()).run();
+    }
+}
@@ -0,0 +1,75 @@
+package cn.webank.dosconfig.benchmark;
+
+import cn.webank.dosconfig.entity.FieldOrder;
+import cn.webank.dosconfig.entity.TimeDimension;
+import cn.webank.dosconfig.entity.rmb.Req_04302590_01;
+import cn.webank.dosconfig.service.metric.cube.CubeDataLoader;
+import cn.webank.dosconfig.service.metric.cube.InMemoryCubeMetricService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 内存事实表上的维度分组查询：queryResultList 为每个分组创建结果 Map 后再读取指标，
+ * queryRows 在聚合分组上逐行回调直接读取 double 累加值，两者的聚合、排序与截断相同。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class CubeMetricQueryBenchmark {
+
+    private static final String DIMENSION = "dim_user.city";
+    private static final String METRIC = "m_amount";
+
+    @Param({"10", "1000", "10000"})
+    public int cardinality;
+
+    private InMemoryCubeMetricService service;
+    private Req_04302590_01 request;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        LinkedHashMap<String, Integer> dimensions = new LinkedHashMap<>();
+        dimensions.put(DIMENSION, cardinality);
+        LocalDate endDate = LocalDate.of(2025, 9, 30);
+        service = new InMemoryCubeMetricService(
+                CubeDataLoader.synthetic(new CubeDataLoader.SyntheticSpec(
+                        dimensions, List.of(METRIC), endDate, 14, 20_000, 42L)),
+                Duration.ZERO, Duration.ZERO, 0);
+        request = new Req_04302590_01();
+        request.setMetrics(List.of(METRIC));
+        request.setDimensions(List.of(DIMENSION));
+        request.setTimeDimensions(List.of(new TimeDimension("dim_calendar_a.fmt_date", "day",
+                List.of(endDate.minusDays(1).toString(), endDate.toString()))));
+        request.setSort(List.of(new FieldOrder(METRIC, "desc")));
+    }
+
+    @Benchmark
+    public double queryResultList() {
+        double total = 0D;
+        for (Map<String, Object> row : service.queryResultList(request)) {
+            total += ((Number) row.get(METRIC)).doubleValue();
+        }
+        return total;
+    }
+
+    @Benchmark
+    public double queryRows() {
+        double[] total = new double[1];
+        service.queryRows(request, row -> total[0] += row.getDouble(METRIC));
+        return total[0];
+    }
+}
@@ -0,0 +1,74 @@
+package cn.webank.dosconfig.benchmark;
+
+import cn.webank.dosconfig.entity.FilterCondition;
+import cn.webank.dosconfig.entity.FilterConditionNormalizer;
+import cn.webank.dosconfig.entity.ImmutableFilterCondition;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 过滤条件的复制与合并：对比原先 JSON 往返深拷贝与不可变共享 / 规范化的开销。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class FilterConditionBenchmark {
+
+    @Param({"2", "20", "200"})
+    public int predicateCount;
+
+    private FilterCondition globalFilter;
+    private FilterCondition listFilter;
+    private ImmutableFilterCondition frozenFilter;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        globalFilter = BenchmarkData.globalFilter(predicateCount);
+        listFilter = BenchmarkData.listFilter();
+        frozenFilter = FilterConditionNormalizer.normalize(FilterCondition.and(List.of(globalFilter, listFilter)));
+    }
+
+    /**
+     * 原实现：每次构造请求都经 JSON 序列化再反序列化深拷贝。
+     */
+    @Benchmark
+    public FilterCondition cloneByJson() {
+        return FilterCondition.fromJson(FilterCondition.toJson(globalFilter));
+    }
+
+    /**
+     * 原实现的合并：两侧各深拷贝一次后组成 AND。
+     */
+    @Benchmark
+    public FilterCondition mergeByJsonClone() {
+        return FilterCondition.and(List.of(
+                FilterCondition.fromJson(FilterCondition.toJson(globalFilter)),
+                FilterCondition.fromJson(FilterCondition.toJson(listFilter))));
+    }
+
+    /**
+     * 现实现的合并：规范化并冻结为不可变实例（每个任务一次）。
+     */
+    @Benchmark
+    public ImmutableFilterCondition mergeAndNormalize() {
+        return FilterConditionNormalizer.normalize(FilterCondition.and(List.of(globalFilter, listFilter)));
+    }
+
+    /**
+     * 现实现的逐请求开销：已冻结实例直接复用。
+     */
+    @Benchmark
+    public ImmutableFilterCondition reuseFrozen() {
+        return ImmutableFilterCondition.of(frozenFilter);
+    }
+}
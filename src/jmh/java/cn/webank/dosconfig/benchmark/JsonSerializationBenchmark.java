@@ -0,0 +1,42 @@
+package cn.webank.dosconfig.benchmark;
+
+import cn.webank.dosconfig.entity.attribution.dto.response.AttributionTreeResultNodeDTO;
+import cn.webank.weup.base.util.JSONUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 归因结果树的 JSON 序列化（结果落库与接口返回均走此路径）。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class JsonSerializationBenchmark {
+
+    @Param({"100", "1000", "10000"})
+    public int nodeCount;
+
+    @Param({"20"})
+    public int itemsPerNode;
+
+    private AttributionTreeResultNodeDTO resultTree;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        resultTree = BenchmarkData.resultTree(nodeCount, itemsPerNode);
+    }
+
+    @Benchmark
+    public String serializeResultTree() {
+        return JSONUtil.toDenseJsonStr(resultTree);
+    }
+}
@@ -0,0 +1,77 @@
+package cn.webank.dosconfig.benchmark;
+
+import cn.webank.dosconfig.entity.attribution.dto.response.MetricTreeNodeDTO;
+import cn.webank.dosconfig.enums.DateGranularity;
+import cn.webank.dosconfig.enums.OperationType;
+import cn.webank.dosconfig.service.attribution.AttributionTreePlan;
+import cn.webank.dosconfig.service.attribution.MetricSeries;
+import cn.webank.dosconfig.service.attribution.NodeMetricComputationEngine;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 整棵指标树的节点取值与增量计算。op 为 MIXED 时非叶子节点按 ADD/SUB/MUL/DIV 轮换；
+ * mode 区分逐节点 BigDecimal 计算与后序数组 double 列计算；computeSweep 一次计算 SWEEP_PAIRS 个相邻周期对，
+ * 可与 SWEEP_PAIRS 次 computeCompiled 对比。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class NodeMetricComputationBenchmark {
+
+    private static final String MIXED = "MIXED";
+    private static final int SWEEP_PAIRS = 30;
+
+    @Param({"10", "1000", "10000"})
+    public int nodeCount;
+
+    @Param({"ADD", "SUB", "MUL", "DIV", MIXED})
+    public String op;
+
+    @Param({"DECIMAL", "ARRAY"})
+    public NodeMetricComputationEngine.EvaluationMode mode;
+
+    private final LocalDate baselineDate = LocalDate.of(2025, 9, 1);
+    private final LocalDate compareDate = LocalDate.of(2025, 9, 8);
+    private NodeMetricComputationEngine engine;
+    private MetricTreeNodeDTO root;
+    private AttributionTreePlan plan;
+    private Map<String, NodeMetricComputationEngine.MetricValue> metricValues;
+    private MetricSeries metricSeries;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        root = BenchmarkData.metricTree(nodeCount, MIXED.equals(op) ? null : OperationType.valueOf(op));
+        metricValues = BenchmarkData.metricValues(nodeCount);
+        plan = AttributionTreePlan.compile("benchmark", 1, root);
+        metricSeries = BenchmarkData.metricSeries(nodeCount, SWEEP_PAIRS + 1);
+        engine = new NodeMetricComputationEngine(new BigDecimal("0.000001"), mode);
+    }
+
+    @Benchmark
+    public NodeMetricComputationEngine.NodeComputation compute() {
+        return engine.compute(root, baselineDate, compareDate, DateGranularity.DAY, metricValues);
+    }
+
+    @Benchmark
+    public NodeMetricComputationEngine.NodeComputation computeCompiled() {
+        return engine.compute(plan, baselineDate, compareDate, DateGranularity.DAY, metricValues);
+    }
+
+    @Benchmark
+    public NodeMetricComputationEngine.SweepResult computeSweep() {
+        return engine.computeSweep(plan, metricSeries);
+    }
+}
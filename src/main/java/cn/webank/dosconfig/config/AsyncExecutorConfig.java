@@ -16,6 +16,9 @@ public class AsyncExecutorConfig {
     private static final int ASYNC_QUEUE_CAPACITY = 200;
     private static final int ASYNC_KEEP_ALIVE_SECONDS = 60;
 
+    private static final int DIMENSION_POOL_SIZE = 16;
+    private static final int DIMENSION_QUEUE_CAPACITY = 1000;
+
     @Bean
     @Qualifier("TPAsync")
     public WeupThreadPoolTaskExecutor weupTaskExecutor() {
@@ -29,5 +32,21 @@ public class AsyncExecutorConfig {
         executor.initialize();
         return executor;
     }
-}
 
+    /**
+     * 维度归因取数线程池，由各归因任务按自身并发上限共享使用。
+     */
+    @Bean
+    @Qualifier("TPDimension")
+    public WeupThreadPoolTaskExecutor dimensionTaskExecutor() {
+        WeupThreadPoolTaskExecutor executor = new WeupThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix("weup-dimension-");
+        executor.setCorePoolSize(DIMENSION_POOL_SIZE);
+        executor.setMaxPoolSize(DIMENSION_POOL_SIZE);
+        executor.setQueueCapacity(DIMENSION_QUEUE_CAPACITY);
+        executor.setKeepAliveSeconds(ASYNC_KEEP_ALIVE_SECONDS);
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.initialize();
+        return executor;
+    }
+}
@@ -0,0 +1,72 @@
+package cn.webank.dosconfig.config;
+
+import cn.webank.dosconfig.service.MetricService;
+import cn.webank.dosconfig.service.metric.cube.CubeDataLoader;
+import cn.webank.dosconfig.service.metric.cube.CubeFactTable;
+import cn.webank.dosconfig.service.metric.cube.InMemoryCubeMetricService;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 内存指标服务配置，仅在 attribution.metric-service.mode=cube 时生效，用于压测环境替代外部指标服务。
+ * 配置了 CSV 路径时从文件加载事实表，否则按合成数据参数生成。
+ */
+@Configuration
+@ConditionalOnProperty(name = "attribution.metric-service.mode", havingValue = "cube")
+public class CubeMetricServiceConfig {
+
+    private static final String PREFIX = "attribution.metric-cube.";
+
+    @Bean
+    @Primary
+    public MetricService cubeMetricService(Environment environment) {
+        CubeFactTable table = loadTable(environment);
+        return new InMemoryCubeMetricService(
+                table,
+                Duration.ofMillis(environment.getProperty(PREFIX + "latency-ms", Long.class, 0L)),
+                Duration.ofMillis(environment.getProperty(PREFIX + "latency-jitter-ms", Long.class, 0L)),
+                environment.getProperty(PREFIX + "error-rate", Double.class, 0D)
+        );
+    }
+
+    private CubeFactTable loadTable(Environment environment) {
+        String csvPath = environment.getProperty(PREFIX + "csv-path");
+        if (StringUtils.isNotBlank(csvPath)) {
+            return CubeDataLoader.fromCsv(Path.of(csvPath),
+                    splitList(environment.getProperty(PREFIX + "csv-metric-columns", "")));
+        }
+        Map<String, Integer> dimensions = new LinkedHashMap<>();
+        for (String item : splitList(environment.getProperty(PREFIX + "synthetic.dimensions", ""))) {
+            int separator = item.lastIndexOf(':');
+            dimensions.put(item.substring(0, separator), Integer.parseInt(item.substring(separator + 1)));
+        }
+        String endDate = environment.getProperty(PREFIX + "synthetic.end-date");
+        return CubeDataLoader.synthetic(new CubeDataLoader.SyntheticSpec(
+                dimensions,
+                splitList(environment.getProperty(PREFIX + "synthetic.metrics", "")),
+                StringUtils.isNotBlank(endDate) ? LocalDate.parse(endDate) : LocalDate.now().minusDays(1),
+                environment.getProperty(PREFIX + "synthetic.days", Integer.class, 60),
+                environment.getProperty(PREFIX + "synthetic.rows-per-day", Integer.class, 5000),
+                environment.getProperty(PREFIX + "synthetic.seed", Long.class, 42L)
+        ));
+    }
+
+    private List<String> splitList(String value) {
+        return Arrays.stream(value.split(","))
+                .map(String::trim)
+                .filter(StringUtils::isNotEmpty)
+                .toList();
+    }
+}
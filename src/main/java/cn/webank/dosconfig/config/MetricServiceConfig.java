@@ -0,0 +1,29 @@
+package cn.webank.dosconfig.config;
+
+import cn.webank.dosconfig.service.metric.MetricServiceDecoratingPostProcessor;
+import cn.webank.dosconfig.service.metric.MetricServiceStatsRegistry;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+/**
+ * 指标服务配置：为外部提供的指标服务挂载缓存等装饰器。
+ */
+@Configuration
+public class MetricServiceConfig {
+
+    /**
+     * 装饰器统计登记表，无依赖，随后置处理器一同提前创建。
+     */
+    @Bean
+    public static MetricServiceStatsRegistry metricServiceStatsRegistry() {
+        return new MetricServiceStatsRegistry();
+    }
+
+    @Bean
+    public static BeanPostProcessor metricServiceDecoratingPostProcessor(Environment environment,
+                                                                         MetricServiceStatsRegistry metricServiceStatsRegistry) {
+        return new MetricServiceDecoratingPostProcessor(environment, metricServiceStatsRegistry);
+    }
+}
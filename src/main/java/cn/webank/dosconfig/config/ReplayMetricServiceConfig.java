@@ -0,0 +1,36 @@
+package cn.webank.dosconfig.config;
+
+import cn.webank.dosconfig.service.MetricService;
+import cn.webank.dosconfig.service.metric.replay.ReplayMetricService;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 回放指标服务配置，仅在 attribution.metric-service.mode=replay 时生效，用录制文件离线重放真实取数负载。
+ */
+@Configuration
+@ConditionalOnProperty(name = "attribution.metric-service.mode", havingValue = "replay")
+public class ReplayMetricServiceConfig {
+
+    @Bean
+    @Primary
+    public MetricService replayMetricService(Environment environment) {
+        List<Path> paths = Arrays.stream(environment.getProperty("attribution.metric-replay.paths", "").split(","))
+                .map(String::trim)
+                .filter(StringUtils::isNotEmpty)
+                .map(Path::of)
+                .toList();
+        return new ReplayMetricService(
+                paths,
+                environment.getProperty("attribution.metric-replay.latency-scale", Double.class, 1D)
+        );
+    }
+}
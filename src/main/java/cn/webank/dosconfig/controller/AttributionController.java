@@ -2,6 +2,7 @@ package cn.webank.dosconfig.controller;
 
 import java.util.List;
 
+import cn.webank.dosconfig.entity.attribution.dto.request.CreateRollingTaskRequest;
 import cn.webank.dosconfig.entity.attribution.dto.request.CreateTaskRequest;
 import cn.webank.dosconfig.enums.DateGranularity;
 import org.apache.commons.lang3.StringUtils;
@@ -20,14 +21,17 @@ import org.springframework.web.bind.annotation.RestController;
 import cn.webank.dosconfig.entity.BaseResponse;
 import cn.webank.dosconfig.entity.attribution.dto.response.AiAttributionReportDTO;
 import cn.webank.dosconfig.entity.attribution.dto.response.AttributionResultDTO;
+import cn.webank.dosconfig.entity.attribution.dto.response.AttributionSeriesResultDTO;
 import cn.webank.dosconfig.entity.attribution.dto.response.AttributionTreeBriefDTO;
 import cn.webank.dosconfig.entity.attribution.dto.response.AttributionTreeConfigDTO;
 import cn.webank.dosconfig.entity.attribution.dto.response.MetricBriefDTO;
 import cn.webank.dosconfig.entity.attribution.dto.response.MetricTrendDTO;
+import cn.webank.dosconfig.entity.attribution.dto.response.NodeDimensionAttributionDTO;
 import cn.webank.dosconfig.entity.attribution.dto.response.TaskCreateDTO;
 import cn.webank.dosconfig.entity.attribution.dto.response.TaskListDTO;
 import cn.webank.dosconfig.entity.attribution.dto.response.TaskStatusDTO;
 import cn.webank.dosconfig.service.AttributionService;
+import cn.webank.dosconfig.service.metric.MetricServiceStatsRegistry;
 import com.google.common.base.Preconditions;
 
 /**
@@ -42,6 +46,9 @@ public class AttributionController {
     @Autowired
     private AttributionService attributionService;
 
+    @Autowired
+    private MetricServiceStatsRegistry metricServiceStatsRegistry;
+
     /**
      * 1) 核心指标查询接口
      * GET /attribution/metrics
@@ -213,6 +220,70 @@ public class AttributionController {
         return response;
     }
 
+    /**
+     * 10) 发起连续周期归因任务
+     * POST /attribution/tasks/rolling
+     */
+    @PostMapping("/tasks/rolling")
+    public BaseResponse<TaskCreateDTO> createRollingTask(
+            @RequestBody CreateRollingTaskRequest request,
+            @RequestHeader(value = "X-User-Name", required = false, defaultValue = "system") String creator) {
+        LOG.info("创建连续周期归因任务: treeId={}, granularity={}, startDate={}, endDate={}, creator={}",
+                request.treeId(), request.timeGranularity(), request.startDate(), request.endDate(), creator);
+        TaskCreateDTO result = attributionService.createRollingTask(request, creator);
+        BaseResponse<TaskCreateDTO> response = BaseResponse.ok(result);
+        logResponse("createRollingTask", response);
+        return response;
+    }
+
+    /**
+     * 11) 查询连续周期归因结果
+     * GET /attribution/tasks/{taskId}/series
+     */
+    @GetMapping("/tasks/{taskId}/series")
+    public BaseResponse<AttributionSeriesResultDTO> getSeriesResult(
+            @PathVariable String taskId) {
+        // 参数校验
+        Preconditions.checkArgument(StringUtils.isNotBlank(taskId), "任务ID不能为空");
+
+        LOG.debug("查询连续周期归因结果: taskId={}", taskId);
+        AttributionSeriesResultDTO result = attributionService.getSeriesResult(taskId);
+        BaseResponse<AttributionSeriesResultDTO> response = BaseResponse.ok(result);
+        logResponse("getSeriesResult", response);
+        return response;
+    }
+
+    /**
+     * 12) 查询节点维度归因结果
+     * GET /attribution/tasks/{taskId}/nodes/{nodeId}/dimensions
+     */
+    @GetMapping("/tasks/{taskId}/nodes/{nodeId}/dimensions")
+    public BaseResponse<NodeDimensionAttributionDTO> getNodeDimensionAttribution(
+            @PathVariable String taskId,
+            @PathVariable String nodeId) {
+        // 参数校验
+        Preconditions.checkArgument(StringUtils.isNotBlank(taskId), "任务ID不能为空");
+        Preconditions.checkArgument(StringUtils.isNotBlank(nodeId), "节点ID不能为空");
+
+        LOG.debug("查询节点维度归因结果: taskId={}, nodeId={}", taskId, nodeId);
+        NodeDimensionAttributionDTO result = attributionService.getNodeDimensionAttribution(taskId, nodeId);
+        BaseResponse<NodeDimensionAttributionDTO> response = BaseResponse.ok(result);
+        logResponse("getNodeDimensionAttribution", response);
+        return response;
+    }
+
+    /**
+     * 13) 查询指标服务装饰器统计（缓存、合并、限流）
+     * GET /attribution/metric-service/stats
+     */
+    @GetMapping("/metric-service/stats")
+    public BaseResponse<List<MetricServiceStatsRegistry.MetricServiceStats>> getMetricServiceStats() {
+        BaseResponse<List<MetricServiceStatsRegistry.MetricServiceStats>> response =
+                BaseResponse.ok(metricServiceStatsRegistry.snapshot());
+        logResponse("getMetricServiceStats", response);
+        return response;
+    }
+
     private void logResponse(String methodName, BaseResponse<?> response) {
         LOG.info("AttributionController {} response: {}", methodName, response);
     }
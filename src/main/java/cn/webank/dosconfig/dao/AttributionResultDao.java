@@ -31,6 +31,13 @@ public interface AttributionResultDao {
      */
     int updateByTaskId(AttributionResult result);
 
+    /**
+     * 按版本号更新归因结果（乐观锁），版本号与库中一致时才更新，并将版本号加一
+     * @param result 归因结果对象，version 为读取时的版本号
+     * @return 影响行数，0 表示结果已被其他请求更新
+     */
+    int updateByTaskIdAndVersion(AttributionResult result);
+
     /**
      * 删除归因结果
      * @param taskId 任务ID
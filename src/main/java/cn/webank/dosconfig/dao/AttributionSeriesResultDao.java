@@ -0,0 +1,35 @@
+package cn.webank.dosconfig.dao;
+
+import cn.webank.dosconfig.entity.attribution.AttributionSeriesResult;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.util.List;
+
+/**
+ * 连续周期归因结果DAO接口
+ */
+@Mapper
+public interface AttributionSeriesResultDao {
+
+    /**
+     * 根据任务ID查询，按节点序号排序
+     * @param taskId 任务ID
+     * @return 节点序列结果列表
+     */
+    List<AttributionSeriesResult> selectByTaskId(@Param("taskId") String taskId);
+
+    /**
+     * 批量插入节点序列结果
+     * @param results 节点序列结果列表
+     * @return 影响行数
+     */
+    int batchInsert(@Param("results") List<AttributionSeriesResult> results);
+
+    /**
+     * 删除任务的全部节点序列结果
+     * @param taskId 任务ID
+     * @return 影响行数
+     */
+    int deleteByTaskId(@Param("taskId") String taskId);
+}
@@ -0,0 +1,188 @@
+package cn.webank.dosconfig.entity;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 过滤条件规范化。
+ * 在下发查询前对过滤树做等价化简，使语义相同的过滤条件得到相同的规范形式，从而提升缓存与合并命中率：
+ * <ul>
+ *     <li>展开嵌套的同类 AND/OR 节点，去掉只有一个子节点的关系节点；</li>
+ *     <li>去除重复谓词（按规范 JSON 判等）；</li>
+ *     <li>折叠常量分支：空条件视为恒真，{@code IN []} 视为恒假，{@code NOT_IN []} 视为恒真；</li>
+ *     <li>AND/OR 子节点及 IN/NOT_IN 取值按规范形式排序。</li>
+ * </ul>
+ * NOT 节点的多子节点语义由下游决定，这里仅规范化其子节点并消除双重否定，不做常量折叠。
+ */
+public final class FilterConditionNormalizer {
+
+    private static final String OP_IN = "IN";
+    private static final String OP_NOT_IN = "NOT_IN";
+
+    private static final Comparator<ImmutableFilterCondition> CANONICAL_ORDER =
+            Comparator.comparing(ImmutableFilterCondition::getCanonicalJson);
+
+    private FilterConditionNormalizer() {
+    }
+
+    /**
+     * 规范化过滤条件。
+     *
+     * @return 规范化后的不可变过滤条件；恒真时返回 {@code null}（即不过滤）
+     */
+    public static ImmutableFilterCondition normalize(FilterCondition filter) {
+        Normalized normalized = normalizeNode(filter);
+        return normalized.kind() == Kind.TRUE ? null : normalized.condition();
+    }
+
+    private static Normalized normalizeNode(FilterCondition condition) {
+        if (condition == null || condition.isEmpty()) {
+            return Normalized.TRUE;
+        }
+        if (FilterCondition.FIELD_NODE.equalsIgnoreCase(condition.getNodeType())) {
+            return normalizeField(condition);
+        }
+        if (!FilterCondition.RELATION_NODE.equalsIgnoreCase(condition.getNodeType())) {
+            return Normalized.of(ImmutableFilterCondition.of(condition));
+        }
+        String relation = condition.getRelation();
+        if (FilterCondition.RELATION_AND.equalsIgnoreCase(relation)) {
+            return normalizeJunction(condition, FilterCondition.RELATION_AND);
+        }
+        if (FilterCondition.RELATION_OR.equalsIgnoreCase(relation)) {
+            return normalizeJunction(condition, FilterCondition.RELATION_OR);
+        }
+        if (FilterCondition.RELATION_NOT.equalsIgnoreCase(relation)) {
+            return normalizeNot(condition);
+        }
+        return Normalized.of(ImmutableFilterCondition.of(condition));
+    }
+
+    private static Normalized normalizeField(FilterCondition condition) {
+        String op = condition.getOp();
+        Object value = condition.getValue();
+        boolean in = OP_IN.equalsIgnoreCase(op);
+        boolean notIn = OP_NOT_IN.equalsIgnoreCase(op);
+        if ((in || notIn) && value instanceof Collection<?> values) {
+            if (values.isEmpty()) {
+                return in ? Normalized.falseOf(ImmutableFilterCondition.of(condition)) : Normalized.TRUE;
+            }
+            value = canonicalValues(values);
+        }
+        FilterCondition copy = new FilterCondition();
+        copy.setNodeType(FilterCondition.FIELD_NODE);
+        copy.setField(condition.getField());
+        copy.setOp(op);
+        copy.setValue(value);
+        return Normalized.of(ImmutableFilterCondition.of(copy));
+    }
+
+    private static Normalized normalizeJunction(FilterCondition condition, String relation) {
+        boolean and = FilterCondition.RELATION_AND.equals(relation);
+        Map<String, ImmutableFilterCondition> children = new LinkedHashMap<>();
+        ImmutableFilterCondition falseWitness = null;
+        for (FilterCondition child : condition.getSubConditions()) {
+            Normalized normalized = normalizeNode(child);
+            if (normalized.kind() == Kind.TRUE) {
+                if (and) {
+                    continue;
+                }
+                return Normalized.TRUE;
+            }
+            if (normalized.kind() == Kind.FALSE) {
+                if (and) {
+                    return normalized;
+                }
+                if (falseWitness == null) {
+                    falseWitness = normalized.condition();
+                }
+                continue;
+            }
+            ImmutableFilterCondition normalizedChild = normalized.condition();
+            if (FilterCondition.RELATION_NODE.equals(normalizedChild.getNodeType())
+                    && relation.equals(normalizedChild.getRelation())) {
+                for (FilterCondition grandChild : normalizedChild.getSubConditions()) {
+                    ImmutableFilterCondition flattened = (ImmutableFilterCondition) grandChild;
+                    children.putIfAbsent(flattened.getCanonicalJson(), flattened);
+                }
+            } else {
+                children.putIfAbsent(normalizedChild.getCanonicalJson(), normalizedChild);
+            }
+        }
+        if (children.isEmpty()) {
+            return and ? Normalized.TRUE : Normalized.falseOf(falseWitness);
+        }
+        if (children.size() == 1) {
+            return Normalized.of(children.values().iterator().next());
+        }
+        List<ImmutableFilterCondition> ordered = new ArrayList<>(children.values());
+        ordered.sort(CANONICAL_ORDER);
+        List<FilterCondition> sorted = new ArrayList<>(ordered);
+        return Normalized.of(ImmutableFilterCondition.of(
+                and ? FilterCondition.and(sorted) : FilterCondition.or(sorted)));
+    }
+
+    private static Normalized normalizeNot(FilterCondition condition) {
+        List<FilterCondition> subConditions = condition.getSubConditions();
+        if (subConditions.size() == 1) {
+            FilterCondition child = subConditions.get(0);
+            if (child != null
+                    && FilterCondition.RELATION_NODE.equalsIgnoreCase(child.getNodeType())
+                    && FilterCondition.RELATION_NOT.equalsIgnoreCase(child.getRelation())
+                    && child.getSubConditions() != null
+                    && child.getSubConditions().size() == 1) {
+                return normalizeNode(child.getSubConditions().get(0));
+            }
+        }
+        List<FilterCondition> children = new ArrayList<>(subConditions.size());
+        for (FilterCondition child : subConditions) {
+            Normalized normalized = normalizeNode(child);
+            children.add(normalized.kind() == Kind.CONDITION ? normalized.condition() : ImmutableFilterCondition.of(child));
+        }
+        FilterCondition not = new FilterCondition();
+        not.setNodeType(FilterCondition.RELATION_NODE);
+        not.setRelation(FilterCondition.RELATION_NOT);
+        not.setSubConditions(children);
+        return Normalized.of(ImmutableFilterCondition.of(not));
+    }
+
+    private static List<Object> canonicalValues(Collection<?> values) {
+        Map<String, Object> distinct = new LinkedHashMap<>();
+        for (Object value : values) {
+            distinct.putIfAbsent(String.valueOf(value), value);
+        }
+        List<String> keys = new ArrayList<>(distinct.keySet());
+        keys.sort(Comparator.naturalOrder());
+        List<Object> result = new ArrayList<>(keys.size());
+        for (String key : keys) {
+            result.add(distinct.get(key));
+        }
+        return result;
+    }
+
+    private enum Kind {
+        TRUE,
+        FALSE,
+        CONDITION
+    }
+
+    /**
+     * 节点规范化结果；恒假时 condition 保留一个等价的恒假谓词，以便整棵树折叠为恒假时仍可下发。
+     */
+    private record Normalized(Kind kind, ImmutableFilterCondition condition) {
+
+        private static final Normalized TRUE = new Normalized(Kind.TRUE, null);
+
+        private static Normalized of(ImmutableFilterCondition condition) {
+            return new Normalized(Kind.CONDITION, condition);
+        }
+
+        private static Normalized falseOf(ImmutableFilterCondition witness) {
+            return new Normalized(Kind.FALSE, witness);
+        }
+    }
+}
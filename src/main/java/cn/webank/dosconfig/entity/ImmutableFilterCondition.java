@@ -0,0 +1,137 @@
+package cn.webank.dosconfig.entity;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 不可变的过滤条件，可在多个请求、多个线程间直接共享而无需深拷贝。
+ * 构造时一次性计算规范化 JSON 及其哈希，结构相同的过滤条件经 {@link #of(FilterCondition)} 驻留为同一实例，
+ * 可直接作为缓存键的一部分使用。
+ */
+public final class ImmutableFilterCondition extends FilterCondition {
+
+    private static final Interner<ImmutableFilterCondition> INTERNER = Interners.newWeakInterner();
+
+    private final String canonicalJson;
+    private final int hash;
+    private boolean frozen;
+
+    private ImmutableFilterCondition(FilterCondition source) {
+        setNodeType(source.getNodeType());
+        setRelation(source.getRelation());
+        setField(source.getField());
+        setOp(source.getOp());
+        setValue(freezeValue(source.getValue()));
+        if (source.getSubConditions() != null) {
+            List<FilterCondition> children = new ArrayList<>(source.getSubConditions().size());
+            for (FilterCondition child : source.getSubConditions()) {
+                children.add(of(child));
+            }
+            setSubConditions(Collections.unmodifiableList(children));
+        }
+        this.canonicalJson = FilterCondition.toJson(this);
+        this.hash = canonicalJson.hashCode();
+        this.frozen = true;
+    }
+
+    /**
+     * 转换为不可变过滤条件，已是不可变实例时直接返回，结构相同的条件返回同一实例。
+     */
+    public static ImmutableFilterCondition of(FilterCondition source) {
+        if (source == null) {
+            return null;
+        }
+        if (source instanceof ImmutableFilterCondition immutable) {
+            return immutable;
+        }
+        return INTERNER.intern(new ImmutableFilterCondition(source));
+    }
+
+    /**
+     * 规范化 JSON 表示。
+     */
+    @JsonIgnore
+    public String getCanonicalJson() {
+        return canonicalJson;
+    }
+
+    @Override
+    public void setNodeType(String nodeType) {
+        checkMutable();
+        super.setNodeType(nodeType);
+    }
+
+    @Override
+    public void setRelation(String relation) {
+        checkMutable();
+        super.setRelation(relation);
+    }
+
+    @Override
+    public void setField(String field) {
+        checkMutable();
+        super.setField(field);
+    }
+
+    @Override
+    public void setValue(Object value) {
+        checkMutable();
+        super.setValue(value);
+    }
+
+    @Override
+    public void setOp(String op) {
+        checkMutable();
+        super.setOp(op);
+    }
+
+    @Override
+    public void setSubConditions(List<FilterCondition> subConditions) {
+        checkMutable();
+        super.setSubConditions(subConditions);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof ImmutableFilterCondition other)) {
+            return false;
+        }
+        return hash == other.hash && canonicalJson.equals(other.canonicalJson);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return canonicalJson;
+    }
+
+    private void checkMutable() {
+        if (frozen) {
+            throw new UnsupportedOperationException("ImmutableFilterCondition不允许修改");
+        }
+    }
+
+    private static Object freezeValue(Object value) {
+        if (value instanceof List<?> list) {
+            return Collections.unmodifiableList(new ArrayList<>(list));
+        }
+        if (value instanceof Map<?, ?> map) {
+            return Collections.unmodifiableMap(new LinkedHashMap<>(map));
+        }
+        return value;
+    }
+}
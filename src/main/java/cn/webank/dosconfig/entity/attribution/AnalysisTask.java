@@ -1,7 +1,9 @@
 package cn.webank.dosconfig.entity.attribution;
 
 import cn.webank.dosconfig.enums.DateGranularity;
+import cn.webank.dosconfig.enums.DimensionMode;
 import cn.webank.dosconfig.enums.TaskStatus;
+import cn.webank.dosconfig.enums.TaskType;
 import lombok.Data;
 import java.math.BigDecimal;
 import java.time.LocalDate;
@@ -28,6 +30,21 @@ public class AnalysisTask {
      */
     private String treeName;
 
+    /**
+     * 任务执行时归因树的配置版本号
+     */
+    private Integer treeVersion;
+
+    /**
+     * 任务执行时归因树的更新时间，与版本号一起判断树配置是否已变更
+     */
+    private LocalDateTime treeUpdateTime;
+
+    /**
+     * 任务类型，连续周期归因任务的基准日期、对比日期为区间起止
+     */
+    private TaskType taskType = TaskType.SINGLE;
+
     /**
      * 名单ID（可选）
      */
@@ -43,6 +60,11 @@ public class AnalysisTask {
      */
     private BigDecimal contributionThreshold;
 
+    /**
+     * 维度归因模式
+     */
+    private DimensionMode dimensionMode = DimensionMode.EAGER;
+
     /**
      * 时间粒度
      */
@@ -19,6 +19,11 @@ public class AttributionResult {
      */
     private String resultTree;
 
+    /**
+     * 结果版本号，每次更新加一，用于并发写回时的乐观锁
+     */
+    private Integer version = 1;
+
     /**
      * 创建时间
      */
@@ -0,0 +1,41 @@
+package cn.webank.dosconfig.entity.attribution;
+
+import lombok.Data;
+import java.time.LocalDateTime;
+
+/**
+ * 连续周期归因结果实体类，每个任务的每个树节点一行
+ */
+@Data
+public class AttributionSeriesResult {
+
+    /**
+     * 任务ID
+     */
+    private String taskId;
+
+    /**
+     * 节点序号（树的先序遍历顺序）
+     */
+    private Integer nodeSeq;
+
+    /**
+     * 节点ID
+     */
+    private String nodeId;
+
+    /**
+     * 父节点ID，根节点为空
+     */
+    private String parentNodeId;
+
+    /**
+     * 节点指标序列（JSON格式）
+     */
+    private String seriesData;
+
+    /**
+     * 创建时间
+     */
+    private LocalDateTime createTime;
+}
@@ -0,0 +1,44 @@
+package cn.webank.dosconfig.entity.attribution.dto.request;
+
+import cn.webank.dosconfig.enums.DateGranularity;
+
+import java.util.Objects;
+import java.util.regex.Pattern;
+
+/**
+ * 创建连续周期归因任务请求：对 [startDate, endDate] 内每两个相邻周期做一次归因
+ */
+public record CreateRollingTaskRequest(
+        String treeId,
+        String listId,
+        DateGranularity timeGranularity,
+        String startDate,
+        String endDate
+) {
+
+    private static final Pattern DATE_PATTERN = Pattern.compile("\\d{4}-\\d{2}-\\d{2}");
+
+    public CreateRollingTaskRequest {
+        requireNonBlank(treeId, "归因树ID不能为空");
+        Objects.requireNonNull(timeGranularity, "时间粒度不能为空");
+
+        requireDate(startDate, "起始日期不能为空");
+        requireDate(endDate, "结束日期不能为空");
+        if (startDate.compareTo(endDate) >= 0) {
+            throw new IllegalArgumentException("起始日期必须早于结束日期");
+        }
+    }
+
+    private static void requireNonBlank(String value, String message) {
+        if (value == null || value.isBlank()) {
+            throw new IllegalArgumentException(message);
+        }
+    }
+
+    private static void requireDate(String value, String message) {
+        requireNonBlank(value, message);
+        if (!DATE_PATTERN.matcher(value).matches()) {
+            throw new IllegalArgumentException("日期格式必须为yyyy-MM-dd");
+        }
+    }
+}
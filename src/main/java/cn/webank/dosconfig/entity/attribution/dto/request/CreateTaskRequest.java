@@ -1,6 +1,7 @@
 package cn.webank.dosconfig.entity.attribution.dto.request;
 
 import cn.webank.dosconfig.enums.DateGranularity;
+import cn.webank.dosconfig.enums.DimensionMode;
 
 import java.math.BigDecimal;
 import java.util.Objects;
@@ -15,7 +16,8 @@ public record CreateTaskRequest(
         BigDecimal contributionThreshold,
         DateGranularity timeGranularity,
         String baselineDate,
-        String compareDate
+        String compareDate,
+        DimensionMode dimensionMode
 ) {
 
     private static final Pattern DATE_PATTERN = Pattern.compile("\\d{4}-\\d{2}-\\d{2}");
@@ -31,6 +33,10 @@ public record CreateTaskRequest(
 
         requireDate(baselineDate, "基准日期不能为空");
         requireDate(compareDate, "对比日期不能为空");
+
+        if (dimensionMode == null) {
+            dimensionMode = DimensionMode.EAGER;
+        }
     }
 
     private static void requireNonBlank(String value, String message) {
@@ -1,7 +1,9 @@
 package cn.webank.dosconfig.entity.attribution.dto.response;
 
 import cn.webank.dosconfig.enums.DateGranularity;
+import cn.webank.dosconfig.enums.DimensionMode;
 import cn.webank.dosconfig.enums.TaskStatus;
+import cn.webank.dosconfig.enums.TaskType;
 
 import java.math.BigDecimal;
 
@@ -12,9 +14,11 @@ public record AnalysisTaskDTO(
         String taskId,
         String treeId,
         String treeName,
+        TaskType taskType,
         String listId,
         String listName,
         BigDecimal contributionThreshold,
+        DimensionMode dimensionMode,
         DateGranularity timeGranularity,
         String baselineDate,
         String compareDate,
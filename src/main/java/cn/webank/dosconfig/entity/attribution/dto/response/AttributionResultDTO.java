@@ -12,6 +12,7 @@ public record AttributionResultDTO(
         DateGranularity timeGranularity,
         String baselineDate,
         String compareDate,
+        Boolean partial,
         AttributionTreeResultNodeDTO resultTree
 ) {
 }
@@ -0,0 +1,20 @@
+package cn.webank.dosconfig.entity.attribution.dto.response;
+
+import cn.webank.dosconfig.enums.DateGranularity;
+
+import java.util.List;
+
+/**
+ * 连续周期归因结果响应
+ */
+public record AttributionSeriesResultDTO(
+        String taskId,
+        String treeId,
+        String treeName,
+        DateGranularity timeGranularity,
+        String startDate,
+        String endDate,
+        List<String> periods,
+        List<NodeSeriesDTO> nodes
+) {
+}
@@ -1,5 +1,7 @@
 package cn.webank.dosconfig.entity.attribution.dto.response;
 
+import cn.webank.dosconfig.enums.DimensionAttributionStatus;
+
 import java.math.BigDecimal;
 import java.util.List;
 
@@ -18,6 +20,7 @@ public record  AttributionTreeResultNodeDTO(
         BigDecimal deltaRate,
         BigDecimal contributionLocal,
         BigDecimal contributionGlobal,
+        DimensionAttributionStatus dimensionStatus,
         List<DimensionAttributionItemDTO> dimensionAttribution,
         List<AttributionTreeResultNodeDTO> children
 ) {
@@ -0,0 +1,16 @@
+package cn.webank.dosconfig.entity.attribution.dto.response;
+
+import cn.webank.dosconfig.enums.DimensionAttributionStatus;
+
+import java.util.List;
+
+/**
+ * 单个节点的维度归因结果
+ */
+public record NodeDimensionAttributionDTO(
+        String taskId,
+        String nodeId,
+        DimensionAttributionStatus dimensionStatus,
+        List<DimensionAttributionItemDTO> dimensionAttribution
+) {
+}
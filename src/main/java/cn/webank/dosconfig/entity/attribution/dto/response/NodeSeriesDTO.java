@@ -0,0 +1,21 @@
+package cn.webank.dosconfig.entity.attribution.dto.response;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * 连续周期归因的节点序列：values 与周期一一对应，其余序列第 k 个元素对应第 k 个周期 → 第 k+1 个周期
+ */
+public record NodeSeriesDTO(
+        String nodeId,
+        String nodeName,
+        String metricId,
+        String parentNodeId,
+        String op,
+        List<BigDecimal> values,
+        List<BigDecimal> deltaValues,
+        List<BigDecimal> deltaRates,
+        List<BigDecimal> localContributions,
+        List<BigDecimal> globalContributions
+) {
+}
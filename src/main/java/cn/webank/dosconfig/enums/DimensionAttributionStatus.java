@@ -0,0 +1,31 @@
+package cn.webank.dosconfig.enums;
+
+/**
+ * 节点维度归因状态枚举
+ */
+public enum DimensionAttributionStatus {
+    /**
+     * 已完成维度归因
+     */
+    COMPLETED,
+
+    /**
+     * 未配置维度或对比期与基准期无差异，无需维度归因
+     */
+    SKIPPED,
+
+    /**
+     * 全局贡献度低于任务贡献度阈值，已剪枝
+     */
+    PRUNED,
+
+    /**
+     * 按需计算模式下尚未计算，查询节点维度归因时计算
+     */
+    DEFERRED,
+
+    /**
+     * 任务执行中，维度归因尚未完成
+     */
+    PENDING
+}
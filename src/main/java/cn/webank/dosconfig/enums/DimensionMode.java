@@ -0,0 +1,16 @@
+package cn.webank.dosconfig.enums;
+
+/**
+ * 维度归因模式枚举
+ */
+public enum DimensionMode {
+    /**
+     * 任务执行时对整棵树完成维度归因
+     */
+    EAGER,
+
+    /**
+     * 任务只完成节点层面的拆解，节点的维度归因在首次查询时计算并写回结果
+     */
+    LAZY
+}
@@ -0,0 +1,16 @@
+package cn.webank.dosconfig.enums;
+
+/**
+ * 任务类型枚举
+ */
+public enum TaskType {
+    /**
+     * 单次归因：基准日期与对比日期两个周期
+     */
+    SINGLE,
+
+    /**
+     * 连续周期归因：日期区间内每两个相邻周期（日环比、周环比、月环比、年环比）
+     */
+    ROLLING
+}
@@ -2,13 +2,16 @@ package cn.webank.dosconfig.service;
 
 import java.util.List;
 
+import cn.webank.dosconfig.entity.attribution.dto.request.CreateRollingTaskRequest;
 import cn.webank.dosconfig.entity.attribution.dto.request.CreateTaskRequest;
 import cn.webank.dosconfig.entity.attribution.dto.response.AiAttributionReportDTO;
 import cn.webank.dosconfig.entity.attribution.dto.response.AttributionResultDTO;
+import cn.webank.dosconfig.entity.attribution.dto.response.AttributionSeriesResultDTO;
 import cn.webank.dosconfig.entity.attribution.dto.response.AttributionTreeBriefDTO;
 import cn.webank.dosconfig.entity.attribution.dto.response.AttributionTreeConfigDTO;
 import cn.webank.dosconfig.entity.attribution.dto.response.MetricBriefDTO;
 import cn.webank.dosconfig.entity.attribution.dto.response.MetricTrendDTO;
+import cn.webank.dosconfig.entity.attribution.dto.response.NodeDimensionAttributionDTO;
 import cn.webank.dosconfig.entity.attribution.dto.response.TaskCreateDTO;
 import cn.webank.dosconfig.entity.attribution.dto.response.TaskListDTO;
 import cn.webank.dosconfig.entity.attribution.dto.response.TaskStatusDTO;
@@ -45,6 +48,11 @@ public interface AttributionService {
      */
     TaskCreateDTO createTask(CreateTaskRequest request, String creator);
 
+    /**
+     * 创建连续周期归因任务
+     */
+    TaskCreateDTO createRollingTask(CreateRollingTaskRequest request, String creator);
+
     /**
      * 查询任务列表
      */
@@ -60,6 +68,16 @@ public interface AttributionService {
      */
     AttributionResultDTO getAttributionResult(String taskId);
 
+    /**
+     * 查询连续周期归因结果
+     */
+    AttributionSeriesResultDTO getSeriesResult(String taskId);
+
+    /**
+     * 查询节点维度归因结果，按需计算模式下首次查询时计算并写回结果
+     */
+    NodeDimensionAttributionDTO getNodeDimensionAttribution(String taskId, String nodeId);
+
     /**
      * 查询AI归因报告
      */
@@ -0,0 +1,67 @@
+package cn.webank.dosconfig.service;
+
+import cn.webank.dosconfig.exception.SystemException;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+/**
+ * 基于 Map 结果行的可复用游标，通过 {@link #reset} 切换到下一行，遍历全程只分配一个实例。
+ */
+final class MapMetricRow implements MetricRow {
+
+    private Map<String, Object> row;
+
+    public MapMetricRow reset(Map<String, Object> row) {
+        this.row = row;
+        return this;
+    }
+
+    @Override
+    public Object get(String field) {
+        return row != null ? row.get(field) : null;
+    }
+
+    @Override
+    public double getDouble(String field) {
+        Object value = get(field);
+        if (value == null) {
+            return 0D;
+        }
+        if (value instanceof Number number) {
+            return number.doubleValue();
+        }
+        String text = value.toString();
+        if (text.isBlank()) {
+            return 0D;
+        }
+        try {
+            return Double.parseDouble(text);
+        } catch (NumberFormatException ex) {
+            throw new SystemException("无法解析指标值: " + value);
+        }
+    }
+
+    @Override
+    public BigDecimal getDecimal(String field) {
+        Object value = get(field);
+        if (value == null) {
+            return BigDecimal.ZERO;
+        }
+        if (value instanceof BigDecimal bigDecimal) {
+            return bigDecimal;
+        }
+        if (value instanceof Number number) {
+            return BigDecimal.valueOf(number.doubleValue());
+        }
+        String text = value.toString();
+        if (text.isBlank()) {
+            return BigDecimal.ZERO;
+        }
+        try {
+            return new BigDecimal(text);
+        } catch (NumberFormatException ex) {
+            throw new SystemException("无法解析指标值: " + value);
+        }
+    }
+}
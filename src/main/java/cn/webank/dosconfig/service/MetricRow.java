@@ -0,0 +1,40 @@
+package cn.webank.dosconfig.service;
+
+import java.math.BigDecimal;
+
+/**
+ * 指标查询结果行游标。
+ * 游标实例在遍历过程中会被复用，只在 {@link MetricRowVisitor#visit} 调用期间有效，调用方不得保存引用。
+ */
+public interface MetricRow {
+
+    /**
+     * 字段原始值，不存在时返回 null。
+     */
+    Object get(String field);
+
+    /**
+     * 字段是否为空。
+     */
+    default boolean isNull(String field) {
+        return get(field) == null;
+    }
+
+    /**
+     * 字段数值，空值或空串返回 0。
+     */
+    double getDouble(String field);
+
+    /**
+     * 字段精确数值，空值或空串返回 {@link BigDecimal#ZERO}。
+     */
+    BigDecimal getDecimal(String field);
+
+    /**
+     * 字段字符串值，为空时返回默认值。
+     */
+    default String getString(String field, String defaultValue) {
+        Object value = get(field);
+        return value != null ? value.toString() : defaultValue;
+    }
+}
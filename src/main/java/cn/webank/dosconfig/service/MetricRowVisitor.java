@@ -0,0 +1,13 @@
+package cn.webank.dosconfig.service;
+
+/**
+ * 指标查询结果逐行回调。
+ */
+@FunctionalInterface
+public interface MetricRowVisitor {
+
+    /**
+     * 处理一行结果，row 仅在本次调用期间有效。
+     */
+    void visit(MetricRow row);
+}
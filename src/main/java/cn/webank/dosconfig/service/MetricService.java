@@ -13,5 +13,23 @@ public interface MetricService {
      * 指标数据查询。
      */
     List<Map<String, Object>> queryResultList(Req_04302590_01 req);
+
+    /**
+     * 指标数据流式查询，逐行回调而不要求调用方持有结果列表。
+     * 默认基于 {@link #queryResultList} 实现并复用同一个行游标；支持流式返回的实现可覆盖本方法，省去整表物化。
+     *
+     * @return 结果行数
+     */
+    default int queryRows(Req_04302590_01 req, MetricRowVisitor visitor) {
+        List<Map<String, Object>> rows = queryResultList(req);
+        if (rows == null) {
+            return 0;
+        }
+        MapMetricRow cursor = new MapMetricRow();
+        for (Map<String, Object> row : rows) {
+            visitor.visit(cursor.reset(row));
+        }
+        return rows.size();
+    }
 }
 
@@ -11,26 +11,50 @@ import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.PriorityQueue;
 
 /**
  * Adtributor 算法 Java 版本，参考仓库内 Python 实现。
  * 负责在单个维度下，基于 Surprise / EP 指标筛选出贡献最大的维度取值。
+ * 支持三种计算模式，见 {@link ComputationMode}。
  */
 public class AdtributorCalculator {
 
     private static final Logger LOG = LoggerFactory.getLogger(AdtributorCalculator.class);
 
+    /**
+     * 校验模式下 EP / Surprise 允许的相对误差，两条路径都保留 8 位有效数字，末位舍入可能不同。
+     */
+    private static final double VERIFY_RELATIVE_TOLERANCE = 1e-7;
+
     private final BigDecimal epsilon;
+    private final double epsilonValue;
+    private final ComputationMode computationMode;
+
+    /**
+     * 有界堆的堆序：Surprise 低者在前，Surprise 相同时遍历顺序靠后者在前，堆顶为当前最差的候选。
+     */
+    private static final Comparator<DimensionCandidate> WORST_CANDIDATE_FIRST =
+            Comparator.comparing(DimensionCandidate::surprise)
+                    .thenComparing(Comparator.comparingInt(DimensionCandidate::order).reversed());
 
     private final MathContext mathContext = new MathContext(8, RoundingMode.HALF_UP);
 
     public AdtributorCalculator(BigDecimal epsilon) {
+        this(epsilon, ComputationMode.DECIMAL);
+    }
+
+    public AdtributorCalculator(BigDecimal epsilon, ComputationMode computationMode) {
         this.epsilon = epsilon;
+        this.epsilonValue = epsilon.doubleValue();
+        this.computationMode = computationMode == null ? ComputationMode.DECIMAL : computationMode;
     }
 
     /**
      * 执行单维归因算法，返回贡献度 TopN 的维度值列表。
      * 计算步骤：统计增量、计算 EP 和 Surprise、按贡献排序并应用阈值过滤，最终返回包含贡献度与排名信息的集合。
+     * 取值先转为维度切片（double），再按 {@link #calculate(String, DimensionSlice, BigDecimal, BigDecimal, int)} 计算。
      *
      * @param dimensionId       维度唯一标识
      * @param compareValues     对比期按维度聚合的指标值
@@ -46,46 +70,84 @@ public class AdtributorCalculator {
                                                        BigDecimal epThreshold,
                                                        BigDecimal epTotalThreshold,
                                                        int maxResultSize) {
-        LOG.info("Adtributor计算开始: dimensionId={}, compareSize={}, baselineSize={}",
-                dimensionId, compareValues.size(), baselineValues.size());
-        BigDecimal totalCompare = sum(compareValues);
-        BigDecimal totalBaseline = sum(baselineValues);
+        return calculate(dimensionId, DimensionSlice.of(baselineValues, compareValues),
+                epThreshold, epTotalThreshold, maxResultSize);
+    }
+
+    /**
+     * 基于合并切片执行单维归因算法，各计算模式都直接线性遍历切片，不再构建 Map。
+     * 切片中的「其他」残差计入合计值，但不作为候选输出。
+     *
+     * @param dimensionId       维度唯一标识
+     * @param slice             基准期与对比期合并后的维度切片
+     * @param epThreshold       单个维度最小 EP 阈值
+     * @param epTotalThreshold  EP 累计阈值
+     * @param maxResultSize     返回的最大条数
+     * @return 维度归因结果列表
+     */
+    public List<DimensionAttributionItemDTO> calculate(String dimensionId,
+                                                       DimensionSlice slice,
+                                                       BigDecimal epThreshold,
+                                                       BigDecimal epTotalThreshold,
+                                                       int maxResultSize) {
+        LOG.info("Adtributor计算开始: dimensionId={}, compareSize={}, baselineSize={}, mode={}",
+                dimensionId, slice.compareCount(), slice.baselineCount(), computationMode);
+        if (computationMode == ComputationMode.PRIMITIVE) {
+            return calculatePrimitive(dimensionId, slice,
+                    epThreshold.doubleValue(), epTotalThreshold.doubleValue(), maxResultSize);
+        }
+        List<DimensionAttributionItemDTO> expected = calculateDecimal(dimensionId, slice,
+                epThreshold, epTotalThreshold, maxResultSize);
+        if (computationMode == ComputationMode.VERIFY) {
+            verify(dimensionId, expected, calculatePrimitive(dimensionId, slice,
+                    epThreshold.doubleValue(), epTotalThreshold.doubleValue(), maxResultSize));
+        }
+        return expected;
+    }
+
+    /**
+     * BigDecimal 计算路径：切片中的 double 取值逐个转为 BigDecimal，合计值、增量、EP 均以 BigDecimal 计算。
+     * 候选顺序与 {@link #calculatePrimitive} 一致：先遍历对比期存在的取值，再遍历基准期独有的取值。
+     */
+    private List<DimensionAttributionItemDTO> calculateDecimal(String dimensionId,
+                                                               DimensionSlice slice,
+                                                               BigDecimal epThreshold,
+                                                               BigDecimal epTotalThreshold,
+                                                               int maxResultSize) {
+        int size = slice.size();
+        BigDecimal totalCompare = BigDecimal.valueOf(slice.residualCompare());
+        BigDecimal totalBaseline = BigDecimal.valueOf(slice.residualBaseline());
+        for (int i = 0; i < size; i++) {
+            totalCompare = totalCompare.add(compareDecimal(slice, i));
+            totalBaseline = totalBaseline.add(baselineDecimal(slice, i));
+        }
         BigDecimal totalDelta = totalBaseline.subtract(totalCompare);
 
-        List<DimensionCandidate> candidates = new ArrayList<>();
-        for (Map.Entry<String, BigDecimal> entry : compareValues.entrySet()) {
-            String value = entry.getKey();
-            BigDecimal compare = entry.getValue();
-            BigDecimal baseline = baselineValues.getOrDefault(value, BigDecimal.ZERO);
-            BigDecimal delta = baseline.subtract(compare);
-            BigDecimal ep = safeDivide(delta, totalDelta);
-            BigDecimal surprise = surprise(compare, baseline, totalCompare, totalBaseline);
-            candidates.add(new DimensionCandidate(value, compare, baseline, delta, ep, surprise));
-        }
-
-        // baseline 中独有的项也需要考虑
-        for (Map.Entry<String, BigDecimal> entry : baselineValues.entrySet()) {
-            if (compareValues.containsKey(entry.getKey())) {
-                continue;
+        // 与原生路径相同：先按 EP 阈值过滤，再用容量为 maxResultSize 的有界堆选出 Surprise 最高的取值，
+        // Surprise 相同时遍历顺序靠前者优先，结果与全量稳定排序后逐个过滤一致
+        int capacity = Math.max(maxResultSize, 1);
+        PriorityQueue<DimensionCandidate> heap = new PriorityQueue<>(capacity + 1, WORST_CANDIDATE_FIRST);
+        int position = 0;
+        for (int pass = 0; pass < 2; pass++) {
+            boolean comparePass = pass == 0;
+            for (int i = 0; i < size; i++) {
+                if (slice.hasCompare(i) != comparePass) {
+                    continue;
+                }
+                offerCandidate(heap, capacity, slice.value(i), compareDecimal(slice, i), baselineDecimal(slice, i),
+                        position++, totalDelta, totalCompare, totalBaseline, epThreshold);
             }
-            String value = entry.getKey();
-            BigDecimal baseline = entry.getValue();
-            BigDecimal compare = BigDecimal.ZERO;
-            BigDecimal delta = baseline.subtract(compare);
-            BigDecimal ep = safeDivide(delta, totalDelta);
-            BigDecimal surprise = surprise(compare, baseline, totalCompare, totalBaseline);
-            candidates.add(new DimensionCandidate(value, compare, baseline, delta, ep, surprise));
         }
 
-        candidates.sort(Comparator.comparing(DimensionCandidate::surprise).reversed());
+        DimensionCandidate[] top = new DimensionCandidate[heap.size()];
+        for (int i = top.length - 1; i >= 0; i--) {
+            top[i] = heap.poll();
+        }
 
-        List<DimensionAttributionItemDTO> results = new ArrayList<>();
+        List<DimensionAttributionItemDTO> results = new ArrayList<>(top.length);
         BigDecimal accumulatedEp = BigDecimal.ZERO;
         int rank = 1;
-        for (DimensionCandidate candidate : candidates) {
-            if (candidate.ep.abs().compareTo(epThreshold) < 0) {
-                continue;
-            }
+        for (DimensionCandidate candidate : top) {
             accumulatedEp = accumulatedEp.add(candidate.ep.abs());
             // TODO jiahao: 后续版本需要处理指标值为负的场景
             results.add(new DimensionAttributionItemDTO(
@@ -98,7 +160,7 @@ public class AdtributorCalculator {
                     candidate.surprise,
                     rank++
             ));
-            if (results.size() >= maxResultSize || accumulatedEp.compareTo(epTotalThreshold) >= 0) {
+            if (accumulatedEp.compareTo(epTotalThreshold) >= 0) {
                 break;
             }
         }
@@ -107,8 +169,175 @@ public class AdtributorCalculator {
         return results;
     }
 
-    private BigDecimal sum(Map<String, BigDecimal> values) {
-        return values.values().stream().reduce(BigDecimal.ZERO, BigDecimal::add);
+    /**
+     * EP 达到阈值的取值计算 Surprise 后放入有界堆，堆满时替换掉堆顶（当前最差）的候选。
+     */
+    private void offerCandidate(PriorityQueue<DimensionCandidate> heap,
+                                int capacity,
+                                String value,
+                                BigDecimal compare,
+                                BigDecimal baseline,
+                                int order,
+                                BigDecimal totalDelta,
+                                BigDecimal totalCompare,
+                                BigDecimal totalBaseline,
+                                BigDecimal epThreshold) {
+        BigDecimal delta = baseline.subtract(compare);
+        BigDecimal ep = safeDivide(delta, totalDelta);
+        if (ep.abs().compareTo(epThreshold) < 0) {
+            return;
+        }
+        DimensionCandidate candidate = new DimensionCandidate(value, compare, baseline, delta, ep,
+                surprise(compare, baseline, totalCompare, totalBaseline), order);
+        if (heap.size() < capacity) {
+            heap.offer(candidate);
+        } else if (WORST_CANDIDATE_FIRST.compare(candidate, heap.peek()) > 0) {
+            heap.poll();
+            heap.offer(candidate);
+        }
+    }
+
+    /**
+     * 基于原生 double 数组的计算路径：合计值使用补偿求和（Kahan-Babuska），EP / Surprise 全程以 double 计算，
+     * 单次遍历用有界堆选出 Surprise 最高的 TopN，仅对最终入选的条目构造 BigDecimal。
+     * 候选顺序与 {@link #calculateDecimal} 一致：先遍历对比期存在的取值，再遍历基准期独有的取值。
+     */
+    private List<DimensionAttributionItemDTO> calculatePrimitive(String dimensionId,
+                                                                 DimensionSlice slice,
+                                                                 double epThreshold,
+                                                                 double epTotalThreshold,
+                                                                 int maxResultSize) {
+        int size = slice.size();
+        CompensatedSum compareSum = new CompensatedSum();
+        CompensatedSum baselineSum = new CompensatedSum();
+        for (int i = 0; i < size; i++) {
+            compareSum.add(slice.compare(i));
+            baselineSum.add(slice.baseline(i));
+        }
+        compareSum.add(slice.residualCompare());
+        baselineSum.add(slice.residualBaseline());
+        double totalCompare = compareSum.value();
+        double totalBaseline = baselineSum.value();
+        double totalDelta = totalBaseline - totalCompare;
+        boolean epDefined = Math.abs(totalDelta) >= epsilonValue;
+        boolean surpriseDefined = Math.abs(totalCompare) >= epsilonValue && Math.abs(totalBaseline) >= epsilonValue;
+
+        // 低于 EP 阈值的取值无论排在哪里都会被跳过，先过滤再选 TopK 与全量排序后逐个过滤的结果完全一致，
+        // 因此无需在过滤掉过多候选时回退放宽选择范围；Surprise 也只对通过过滤的取值计算
+        SurpriseHeap heap = new SurpriseHeap(Math.max(maxResultSize, 1));
+        int position = 0;
+        for (int pass = 0; pass < 2; pass++) {
+            boolean comparePass = pass == 0;
+            for (int i = 0; i < size; i++) {
+                if (slice.hasCompare(i) != comparePass) {
+                    continue;
+                }
+                int order = position++;
+                double compare = slice.compare(i);
+                double baseline = slice.baseline(i);
+                double ep = epDefined ? (baseline - compare) / totalDelta : 0D;
+                if (Math.abs(ep) < epThreshold) {
+                    continue;
+                }
+                heap.offer(i, order, surpriseDefined ? surprise(compare / totalCompare, baseline / totalBaseline) : 0D);
+            }
+        }
+        int[] top = heap.drainDescending();
+
+        List<DimensionAttributionItemDTO> results = new ArrayList<>(top.length);
+        double accumulatedEp = 0D;
+        int rank = 1;
+        for (int i : top) {
+            double compare = slice.compare(i);
+            double baseline = slice.baseline(i);
+            double ep = epDefined ? (baseline - compare) / totalDelta : 0D;
+            double surprise = surpriseDefined ? surprise(compare / totalCompare, baseline / totalBaseline) : 0D;
+            accumulatedEp += Math.abs(ep);
+            BigDecimal compareValue = toDecimal(compare);
+            BigDecimal baselineValue = toDecimal(baseline);
+            results.add(new DimensionAttributionItemDTO(
+                    dimensionId,
+                    slice.value(i),
+                    compareValue,
+                    baselineValue,
+                    baselineValue.subtract(compareValue),
+                    ep == 0D ? BigDecimal.ZERO : new BigDecimal(ep, mathContext),
+                    surprise == 0D ? BigDecimal.ZERO : new BigDecimal(surprise, mathContext),
+                    rank++
+            ));
+            if (accumulatedEp >= epTotalThreshold) {
+                break;
+            }
+        }
+        LOG.info("Adtributor计算完成: dimensionId={}, resultSize={}, totalDelta={}",
+                dimensionId, results.size(), totalDelta);
+        return results;
+    }
+
+    private double surprise(double p, double q) {
+        if (closeToZero(p) && closeToZero(q)) {
+            return 0D;
+        }
+        if (closeToZero(p)) {
+            return 0.5 * q * Math.log10(2);
+        }
+        if (closeToZero(q)) {
+            return 0.5 * p * Math.log10(2);
+        }
+        return 0.5 * (p * log10(2 * p / (p + q)) + q * log10(2 * q / (p + q)));
+    }
+
+    /**
+     * 对比期取值转为 BigDecimal，该周期不存在的取值为 {@link BigDecimal#ZERO}。
+     */
+    private static BigDecimal compareDecimal(DimensionSlice slice, int index) {
+        return slice.hasCompare(index) ? BigDecimal.valueOf(slice.compare(index)) : BigDecimal.ZERO;
+    }
+
+    /**
+     * 基准期取值转为 BigDecimal，该周期不存在的取值为 {@link BigDecimal#ZERO}。
+     */
+    private static BigDecimal baselineDecimal(DimensionSlice slice, int index) {
+        return slice.hasBaseline(index) ? BigDecimal.valueOf(slice.baseline(index)) : BigDecimal.ZERO;
+    }
+
+    private static BigDecimal toDecimal(double value) {
+        // 缺失取值按 0 处理，与 BigDecimal 路径保持相同的精度表示
+        return value == 0D ? BigDecimal.ZERO : BigDecimal.valueOf(value);
+    }
+
+    /**
+     * 校验原生计算结果与 BigDecimal 计算结果是否一致：取值、排名及三项数值须完全相同，EP / Surprise 允许末位舍入误差。
+     */
+    private void verify(String dimensionId,
+                        List<DimensionAttributionItemDTO> expected,
+                        List<DimensionAttributionItemDTO> actual) {
+        if (expected.size() != actual.size()) {
+            LOG.warn("Adtributor计算结果校验不一致: dimensionId={}, decimalSize={}, primitiveSize={}",
+                    dimensionId, expected.size(), actual.size());
+            return;
+        }
+        for (int i = 0; i < expected.size(); i++) {
+            DimensionAttributionItemDTO e = expected.get(i);
+            DimensionAttributionItemDTO a = actual.get(i);
+            boolean same = Objects.equals(e.dimensionValue(), a.dimensionValue())
+                    && e.compareValue().compareTo(a.compareValue()) == 0
+                    && e.baselineValue().compareTo(a.baselineValue()) == 0
+                    && e.deltaValue().compareTo(a.deltaValue()) == 0
+                    && closeTo(e.contribution(), a.contribution())
+                    && closeTo(e.surprise(), a.surprise());
+            if (!same) {
+                LOG.warn("Adtributor计算结果校验不一致: dimensionId={}, rank={}, decimal={}, primitive={}",
+                        dimensionId, i + 1, e, a);
+                return;
+            }
+        }
+    }
+
+    private static boolean closeTo(BigDecimal expected, BigDecimal actual) {
+        double e = expected.doubleValue();
+        double a = actual.doubleValue();
+        return Math.abs(e - a) <= VERIFY_RELATIVE_TOLERANCE * Math.max(Math.abs(e), Math.abs(a));
     }
 
     private BigDecimal safeDivide(BigDecimal numerator, BigDecimal denominator) {
@@ -146,12 +375,152 @@ public class AdtributorCalculator {
         return Math.log(value) / Math.log(10);
     }
 
+    /**
+     * 计算模式。
+     */
+    public enum ComputationMode {
+        /**
+         * 全程 BigDecimal 计算。切片在取数时以 double 累加，BigDecimal 计算的输入即为这些 double 取值，
+         * 精确的是合计、增量与 EP 的运算本身，不是取数时的累加。
+         */
+        DECIMAL,
+        /**
+         * 原生 double 数组计算，仅对最终结果构造 BigDecimal。
+         */
+        PRIMITIVE,
+        /**
+         * 两条路径都计算并比对，结果不一致时告警，返回 BigDecimal 路径的结果。
+         * 两条路径的输入是同一份 double 切片，比对的是原生路径的运算（补偿求和、有界堆选择）与 BigDecimal 运算是否一致，
+         * 不校验取数累加的精确性。
+         */
+        VERIFY
+    }
+
+    /**
+     * Kahan-Babuska 补偿求和，避免大量取值累加时丢失低位精度。
+     */
+    private static final class CompensatedSum {
+
+        private double sum;
+        private double compensation;
+
+        private void add(double value) {
+            double t = sum + value;
+            if (Math.abs(sum) >= Math.abs(value)) {
+                compensation += (sum - t) + value;
+            } else {
+                compensation += (value - t) + sum;
+            }
+            sum = t;
+        }
+
+        private double value() {
+            return sum + compensation;
+        }
+    }
+
+    /**
+     * 按 Surprise 保留前 K 个候选下标的小顶堆，堆顶为当前最差的候选。
+     * Surprise 相同时遍历顺序靠前者优先，与按 Surprise 稳定降序排序后取前 K 个的结果一致。
+     */
+    private static final class SurpriseHeap {
+
+        private final int[] indexes;
+        private final int[] orders;
+        private final double[] surprises;
+        private int size;
+
+        private SurpriseHeap(int capacity) {
+            this.indexes = new int[capacity];
+            this.orders = new int[capacity];
+            this.surprises = new double[capacity];
+        }
+
+        private void offer(int index, int order, double surprise) {
+            if (size < indexes.length) {
+                indexes[size] = index;
+                orders[size] = order;
+                surprises[size] = surprise;
+                siftUp(size++);
+                return;
+            }
+            if (!worse(orders[0], surprises[0], order, surprise)) {
+                return;
+            }
+            indexes[0] = index;
+            orders[0] = order;
+            surprises[0] = surprise;
+            siftDown(0);
+        }
+
+        /**
+         * 按 Surprise 从高到低返回堆内下标，调用后堆被清空。
+         */
+        private int[] drainDescending() {
+            int[] result = new int[size];
+            for (int i = result.length - 1; i >= 0; i--) {
+                result[i] = indexes[0];
+                size--;
+                indexes[0] = indexes[size];
+                orders[0] = orders[size];
+                surprises[0] = surprises[size];
+                siftDown(0);
+            }
+            return result;
+        }
+
+        private void siftUp(int position) {
+            while (position > 0) {
+                int parent = (position - 1) >>> 1;
+                if (!worse(orders[position], surprises[position], orders[parent], surprises[parent])) {
+                    break;
+                }
+                swap(position, parent);
+                position = parent;
+            }
+        }
+
+        private void siftDown(int position) {
+            while (true) {
+                int left = (position << 1) + 1;
+                if (left >= size) {
+                    return;
+                }
+                int right = left + 1;
+                int worst = right < size && worse(orders[right], surprises[right], orders[left], surprises[left])
+                        ? right : left;
+                if (!worse(orders[worst], surprises[worst], orders[position], surprises[position])) {
+                    return;
+                }
+                swap(position, worst);
+                position = worst;
+            }
+        }
+
+        private static boolean worse(int order, double surprise, int otherOrder, double otherSurprise) {
+            return surprise < otherSurprise || (surprise == otherSurprise && order > otherOrder);
+        }
+
+        private void swap(int a, int b) {
+            int index = indexes[a];
+            indexes[a] = indexes[b];
+            indexes[b] = index;
+            int order = orders[a];
+            orders[a] = orders[b];
+            orders[b] = order;
+            double surprise = surprises[a];
+            surprises[a] = surprises[b];
+            surprises[b] = surprise;
+        }
+    }
+
     private record DimensionCandidate(String value,
                                       BigDecimal compareValue,
                                       BigDecimal baselineValue,
                                       BigDecimal deltaValue,
                                       BigDecimal ep,
-                                      BigDecimal surprise) {
+                                      BigDecimal surprise,
+                                      int order) {
     }
 }
 
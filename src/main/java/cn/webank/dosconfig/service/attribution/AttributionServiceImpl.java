@@ -3,18 +3,23 @@ package cn.webank.dosconfig.service.attribution;
 import cn.webank.dosconfig.dao.AiReportDao;
 import cn.webank.dosconfig.dao.AnalysisTaskDao;
 import cn.webank.dosconfig.dao.AttributionResultDao;
+import cn.webank.dosconfig.dao.AttributionSeriesResultDao;
 import cn.webank.dosconfig.dao.AttributionTreeDao;
 import cn.webank.dosconfig.entity.FieldOrder;
 import cn.webank.dosconfig.entity.FilterCondition;
-import cn.webank.dosconfig.entity.TimeDimension;
+import cn.webank.dosconfig.entity.FilterConditionNormalizer;
+import cn.webank.dosconfig.entity.ImmutableFilterCondition;
 import cn.webank.dosconfig.entity.attribution.AiReport;
 import cn.webank.dosconfig.entity.attribution.AnalysisTask;
 import cn.webank.dosconfig.entity.attribution.AttributionResult;
+import cn.webank.dosconfig.entity.attribution.AttributionSeriesResult;
 import cn.webank.dosconfig.entity.attribution.AttributionTree;
+import cn.webank.dosconfig.entity.attribution.dto.request.CreateRollingTaskRequest;
 import cn.webank.dosconfig.entity.attribution.dto.request.CreateTaskRequest;
 import cn.webank.dosconfig.entity.attribution.dto.response.AiAttributionReportDTO;
 import cn.webank.dosconfig.entity.attribution.dto.response.AnalysisTaskDTO;
 import cn.webank.dosconfig.entity.attribution.dto.response.AttributionResultDTO;
+import cn.webank.dosconfig.entity.attribution.dto.response.AttributionSeriesResultDTO;
 import cn.webank.dosconfig.entity.attribution.dto.response.AttributionTreeBriefDTO;
 import cn.webank.dosconfig.entity.attribution.dto.response.AttributionTreeConfigDTO;
 import cn.webank.dosconfig.entity.attribution.dto.response.AttributionTreeResultNodeDTO;
@@ -28,19 +33,28 @@ import cn.webank.dosconfig.entity.attribution.dto.response.MetricItemDTO;
 import cn.webank.dosconfig.entity.attribution.dto.response.MetricPointDTO;
 import cn.webank.dosconfig.entity.attribution.dto.response.MetricTrendDTO;
 import cn.webank.dosconfig.entity.attribution.dto.response.MetricTreeNodeDTO;
+import cn.webank.dosconfig.entity.attribution.dto.response.NodeDimensionAttributionDTO;
+import cn.webank.dosconfig.entity.attribution.dto.response.NodeSeriesDTO;
 import cn.webank.dosconfig.entity.attribution.dto.response.TaskCreateDTO;
 import cn.webank.dosconfig.entity.attribution.dto.response.TaskListDTO;
 import cn.webank.dosconfig.entity.attribution.dto.response.TaskStatusDTO;
 import cn.webank.dosconfig.entity.rmb.Req_04302590_01;
 import cn.webank.dosconfig.enums.DateGranularity;
+import cn.webank.dosconfig.enums.DimensionAttributionStatus;
+import cn.webank.dosconfig.enums.DimensionMode;
 import cn.webank.dosconfig.enums.EOperator;
+import cn.webank.dosconfig.enums.OperationType;
 import cn.webank.dosconfig.enums.TaskStatus;
+import cn.webank.dosconfig.enums.TaskType;
 import cn.webank.dosconfig.exception.SystemException;
 import cn.webank.dosconfig.service.AttributionService;
 import cn.webank.dosconfig.service.MetricService;
 import cn.webank.weup.base.util.JSONUtil;
 import cn.webank.weup.biz.rmb.WeupRmbUtil;
 import cn.webank.weup.biz.threadpool.WeupThreadPoolTaskExecutor;
+import com.google.common.base.Suppliers;
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.Striped;
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -56,16 +70,26 @@ import java.math.RoundingMode;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Deque;
 import java.util.HashMap;
-import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
 import java.util.Objects;
+import java.util.Set;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.Lock;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 /**
@@ -78,16 +102,61 @@ public class AttributionServiceImpl implements AttributionService {
     private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd");
     private static final DateTimeFormatter DATETIME_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
     private static final int TREND_WINDOW_SIZE = 180;
+    private static final long TREE_PLAN_CACHE_SIZE = 1024;
+    private static final int SERIES_RESULT_INSERT_BATCH = 500;
+    private static final int TASK_RESULT_LOCK_STRIPES = 64;
+    private static final int RESULT_UPDATE_MAX_ATTEMPTS = 5;
+
+    private final AttributionTreePlanCache treePlanCache = new AttributionTreePlanCache(TREE_PLAN_CACHE_SIZE);
+    private final MetricValueDeriver metricValueDeriver = new MetricValueDeriver();
+    private final Striped<Lock> taskResultLocks = Striped.lock(TASK_RESULT_LOCK_STRIPES);
+    private final Supplier<Executor> deferredDimensionExecutor = Suppliers.memoize(this::createDimensionExecutor);
 
     @Value("${attribution.epsilon:0.000001}")
     private BigDecimal epsilon;
 
+    @Value("${attribution.node.evaluation-mode:DECIMAL}")
+    private NodeMetricComputationEngine.EvaluationMode nodeEvaluationMode;
+
+    @Value("${attribution.derive.verify-sample-rate:0}")
+    private double deriveVerifySampleRate;
+
+    @Value("${attribution.derive.drift-tolerance:0.000001}")
+    private double deriveDriftTolerance;
+
+    @Value("${attribution.result.progressive-enabled:true}")
+    private boolean progressiveResultEnabled;
+
+    @Value("${attribution.result.publish-interval-ms:2000}")
+    private long progressiveResultIntervalMillis;
+
+    @Value("${attribution.rolling.max-periods:400}")
+    private int rollingMaxPeriods;
+
     @Value("${attribution.metric-query.limit:1000}")
     private int metricQueryLimit;
 
+    @Value("${attribution.metric-query.batch-enabled:true}")
+    private boolean metricBatchEnabled;
+
     @Value("${attribution.dimension.top-limit:1000}")
     private int dimensionTopLimit;
 
+    @Value("${attribution.dimension.adaptive-fetch-enabled:true}")
+    private boolean dimensionAdaptiveFetchEnabled;
+
+    @Value("${attribution.dimension.initial-limit:100}")
+    private int dimensionInitialLimit;
+
+    @Value("${attribution.dimension.paired-fetch-enabled:true}")
+    private boolean dimensionPairedFetchEnabled;
+
+    @Value("${attribution.dimension.batch-fetch-enabled:true}")
+    private boolean dimensionBatchFetchEnabled;
+
+    @Value("${attribution.dimension.parallelism:8}")
+    private int dimensionParallelism;
+
     @Value("${attribution.dimension.max-result-size:20}")
     private int dimensionMaxResult;
 
@@ -96,6 +165,9 @@ public class AttributionServiceImpl implements AttributionService {
 
     @Value("${attribution.dimension.ep-total-threshold:0.67}")
     private BigDecimal dimensionEpTotalThreshold;
+
+    @Value("${attribution.dimension.computation-mode:DECIMAL}")
+    private AdtributorCalculator.ComputationMode dimensionComputationMode;
     @Autowired
     private AttributionTreeDao treeDao;
 
@@ -105,6 +177,9 @@ public class AttributionServiceImpl implements AttributionService {
     @Autowired
     private AttributionResultDao resultDao;
 
+    @Autowired
+    private AttributionSeriesResultDao seriesResultDao;
+
     @Autowired
     private AiReportDao reportDao;
 
@@ -115,8 +190,12 @@ public class AttributionServiceImpl implements AttributionService {
     @Qualifier("TPAsync")
     private WeupThreadPoolTaskExecutor taskExecutor;
 
+    @Autowired
+    @Qualifier("TPDimension")
+    private WeupThreadPoolTaskExecutor dimensionTaskExecutor;
+
     private NodeMetricComputationEngine createNodeMetricComputationEngine() {
-        return new NodeMetricComputationEngine(epsilon);
+        return new NodeMetricComputationEngine(epsilon, nodeEvaluationMode);
     }
 
     private DimensionAttributionEngine createDimensionAttributionEngine() {
@@ -124,10 +203,26 @@ public class AttributionServiceImpl implements AttributionService {
                 epsilon,
                 dimensionMaxResult,
                 dimensionEpThreshold,
-                dimensionEpTotalThreshold
+                dimensionEpTotalThreshold,
+                dimensionComputationMode
         );
     }
 
+    /**
+     * 维度取数执行器：与归因任务一样经 WeupRmbUtil 提交到维度线程池以透传 RMB 上下文，并发度按单个任务的上限限制。
+     * 按需计算的节点维度归因共用同一个执行器（{@link #deferredDimensionExecutor}），所有查询请求合计受同一上限约束，
+     * 超出时请求线程阻塞等待，不会把维度线程池的队列打满。
+     */
+    private Executor createDimensionExecutor() {
+        return new BoundedExecutor(
+                command -> WeupRmbUtil.asyncRunWithContext(dimensionTaskExecutor, command),
+                dimensionParallelism);
+    }
+
+    private DimensionSliceFetcher createDimensionSliceFetcher() {
+        return new DimensionSliceFetcher(metricService, dimensionPairedFetchEnabled);
+    }
+
     /**
      * 查询核心指标列表（支持按名称模糊匹配）。
      *
@@ -168,7 +263,7 @@ public class AttributionServiceImpl implements AttributionService {
         LocalDate compareStart = LocalDate.parse(baselineDate, DATE_FORMATTER);
         LocalDate compareEnd = LocalDate.parse(compareDate, DATE_FORMATTER);
 
-        FilterCondition globalFilter = parseFilter(trees.get(0).getGlobalFilter());
+        FilterCondition globalFilter = FilterConditionNormalizer.normalize(parseFilter(trees.get(0).getGlobalFilter()));
 
         List<MetricPointDTO> trendSeries = queryTrendSeries(
                 metricId,
@@ -237,7 +332,7 @@ public class AttributionServiceImpl implements AttributionService {
             throw new SystemException("归因树不存在: " + treeId);
         }
 
-        MetricTreeNodeDTO root = parseJson(tree.getTreeConfig(), MetricTreeNodeDTO.class, "归因树配置格式错误");
+        MetricTreeNodeDTO root = loadTreePlan(tree).root();
             return new AttributionTreeConfigDTO(
                     tree.getTreeId(),
                     tree.getTreeName(),
@@ -267,9 +362,11 @@ public class AttributionServiceImpl implements AttributionService {
         task.setTaskId(generateTaskId());
         task.setTreeId(request.treeId());
         task.setTreeName(tree.getTreeName());
+        task.setTaskType(TaskType.SINGLE);
         task.setListId(request.listId());
         task.setListName(null);
         task.setContributionThreshold(request.contributionThreshold());
+        task.setDimensionMode(request.dimensionMode());
         task.setTimeGranularity(request.timeGranularity());
         task.setBaselineDate(baseline);
         task.setCompareDate(compare);
@@ -291,6 +388,57 @@ public class AttributionServiceImpl implements AttributionService {
         );
     }
 
+    /**
+     * 创建连续周期归因任务：区间内每两个相邻周期各做一次节点归因，区间起止记录在任务的基准日期、对比日期上。
+     */
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public TaskCreateDTO createRollingTask(CreateRollingTaskRequest request, String creator) {
+        AttributionTree tree = treeDao.selectByTreeId(request.treeId());
+        if (tree == null) {
+            throw new SystemException("归因树不存在: " + request.treeId());
+        }
+
+        LocalDate start = LocalDate.parse(request.startDate(), DATE_FORMATTER);
+        LocalDate end = LocalDate.parse(request.endDate(), DATE_FORMATTER);
+        long periodCount = MetricQuerySupport.countPeriods(start, end, request.timeGranularity());
+        if (periodCount < 2) {
+            throw new SystemException("日期区间至少需要覆盖两个周期");
+        }
+        if (periodCount > rollingMaxPeriods) {
+            throw new SystemException("日期区间覆盖的周期数超过上限: " + periodCount + " > " + rollingMaxPeriods);
+        }
+        LocalDateTime now = LocalDateTime.now();
+
+        AnalysisTask task = new AnalysisTask();
+        task.setTaskId(generateTaskId());
+        task.setTreeId(request.treeId());
+        task.setTreeName(tree.getTreeName());
+        task.setTaskType(TaskType.ROLLING);
+        task.setListId(request.listId());
+        task.setListName(null);
+        task.setContributionThreshold(null);
+        task.setTimeGranularity(request.timeGranularity());
+        task.setBaselineDate(start);
+        task.setCompareDate(end);
+        task.setStatus(TaskStatus.PENDING);
+        task.setProgress(0);
+        task.setCreator(creator);
+        task.setCreateTime(now);
+        task.setUpdateTime(now);
+        task.setMessage("等待执行");
+
+        taskDao.insert(task);
+        submitRollingTask(task.getTaskId());
+
+        return new TaskCreateDTO(
+                task.getTaskId(),
+                task.getTimeGranularity(),
+                formatDate(task.getBaselineDate()),
+                formatDate(task.getCompareDate())
+        );
+    }
+
     /**
      * 分页查询任务列表，可按归因树名称/创建人过滤。
      */
@@ -333,7 +481,8 @@ public class AttributionServiceImpl implements AttributionService {
     }
 
     /**
-     * 查询归因分析结果（仅成功任务可查询）。
+     * 查询归因分析结果。成功任务返回最终结果；执行中的任务返回已发布的中间结果（partial 为 true），
+     * 维度归因尚未完成的节点状态为 PENDING。
      */
     @Override
     public AttributionResultDTO getAttributionResult(String taskId) {
@@ -342,20 +491,20 @@ public class AttributionServiceImpl implements AttributionService {
             throw new SystemException("任务不存在: " + taskId);
         }
 
-        if (task.getStatus() != TaskStatus.SUCCESS) {
+        if (task.getTaskType() == TaskType.ROLLING) {
+            throw new SystemException("连续周期归因任务请查询序列结果: " + taskId);
+        }
+
+        boolean partial = task.getStatus() == TaskStatus.RUNNING;
+        if (task.getStatus() != TaskStatus.SUCCESS && !partial) {
             throw new SystemException("任务尚未完成，无法获取结果");
         }
 
         AttributionResult result = resultDao.selectByTaskId(taskId);
         if (result == null) {
-            throw new SystemException("归因结果不存在: " + taskId);
+            throw new SystemException(partial ? "任务尚未产出中间结果，请稍后查询" : "归因结果不存在: " + taskId);
         }
-
-        AttributionTreeResultNodeDTO resultTree = parseJson(
-                    result.getResultTree(),
-                AttributionTreeResultNodeDTO.class,
-                "归因结果格式错误"
-            );
+        AttributionTreeResultNodeDTO resultTree = parseJson(result.getResultTree(), AttributionTreeResultNodeDTO.class, "归因结果格式错误");
 
             return new AttributionResultDTO(
                     task.getTaskId(),
@@ -364,10 +513,125 @@ public class AttributionServiceImpl implements AttributionService {
                     task.getTimeGranularity(),
                     formatDate(task.getBaselineDate()),
                     formatDate(task.getCompareDate()),
+                    partial,
                     resultTree
             );
     }
 
+    /**
+     * 查询连续周期归因结果（仅成功的连续周期归因任务可查询），节点按树的先序顺序返回。
+     */
+    @Override
+    public AttributionSeriesResultDTO getSeriesResult(String taskId) {
+        AnalysisTask task = taskDao.selectByTaskId(taskId);
+        if (task == null) {
+            throw new SystemException("任务不存在: " + taskId);
+        }
+
+        if (task.getTaskType() != TaskType.ROLLING) {
+            throw new SystemException("任务不是连续周期归因任务: " + taskId);
+        }
+
+        if (task.getStatus() != TaskStatus.SUCCESS) {
+            throw new SystemException("任务尚未完成，无法获取结果");
+        }
+
+        List<AttributionSeriesResult> rows = seriesResultDao.selectByTaskId(taskId);
+        if (rows == null || rows.isEmpty()) {
+            throw new SystemException("连续周期归因结果不存在: " + taskId);
+        }
+
+        List<NodeSeriesDTO> nodes = rows.stream()
+                .map(row -> parseJson(row.getSeriesData(), NodeSeriesDTO.class, "连续周期归因结果格式错误"))
+                .collect(Collectors.toList());
+        List<String> periods = MetricQuerySupport.listPeriods(
+                        task.getBaselineDate(), task.getCompareDate(), task.getTimeGranularity()).stream()
+                .map(this::formatDate)
+                .collect(Collectors.toList());
+
+        return new AttributionSeriesResultDTO(
+                task.getTaskId(),
+                task.getTreeId(),
+                task.getTreeName(),
+                task.getTimeGranularity(),
+                formatDate(task.getBaselineDate()),
+                formatDate(task.getCompareDate()),
+                periods,
+                nodes
+        );
+    }
+
+    /**
+     * 查询节点维度归因结果。节点状态为待计算时计算该节点的维度归因并写回结果树，已计算的节点直接返回缓存的结果。
+     * 本实例内同一任务的并发查询经任务锁串行执行，避免重复计算；跨实例的并发写回由结果版本号保证不丢失更新。
+     */
+    @Override
+    public NodeDimensionAttributionDTO getNodeDimensionAttribution(String taskId, String nodeId) {
+        AnalysisTask task = taskDao.selectByTaskId(taskId);
+        if (task == null) {
+            throw new SystemException("任务不存在: " + taskId);
+        }
+
+        if (task.getTaskType() == TaskType.ROLLING) {
+            throw new SystemException("连续周期归因任务不支持维度归因: " + taskId);
+        }
+
+        if (task.getStatus() != TaskStatus.SUCCESS) {
+            throw new SystemException("任务尚未完成，无法获取结果");
+        }
+
+        AttributionTreeResultNodeDTO resultNode = findResultNode(parseResultTree(loadResult(taskId)), nodeId);
+        if (resultNode.dimensionStatus() != DimensionAttributionStatus.DEFERRED) {
+            return new NodeDimensionAttributionDTO(taskId, nodeId, resultNode.dimensionStatus(), resultNode.dimensionAttribution());
+        }
+
+        Lock lock = taskResultLocks.get(taskId);
+        lock.lock();
+        try {
+            // 等锁期间其他请求可能已完成计算并写回，重新读取结果
+            AttributionResult result = loadResult(taskId);
+            resultNode = findResultNode(parseResultTree(result), nodeId);
+            if (resultNode.dimensionStatus() != DimensionAttributionStatus.DEFERRED) {
+                return new NodeDimensionAttributionDTO(taskId, nodeId, resultNode.dimensionStatus(), resultNode.dimensionAttribution());
+            }
+            List<DimensionAttributionItemDTO> items = computeDeferredDimensionAttribution(task, resultNode);
+            return saveDeferredDimensionAttribution(result, nodeId, items);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 按结果版本号写回按需计算的节点维度归因。版本冲突说明其他实例已写回同一任务的结果：
+     * 该节点已被其他实例计算完成时直接返回已写回的结果，否则在最新的结果树上替换该节点后重试。
+     */
+    private NodeDimensionAttributionDTO saveDeferredDimensionAttribution(AttributionResult result,
+                                                                        String nodeId,
+                                                                        List<DimensionAttributionItemDTO> items) {
+        String taskId = result.getTaskId();
+        for (int attempt = 1; ; attempt++) {
+            AttributionTreeResultNodeDTO resultTree = parseResultTree(result);
+            AttributionTreeResultNodeDTO resultNode = findResultNode(resultTree, nodeId);
+            if (resultNode.dimensionStatus() != DimensionAttributionStatus.DEFERRED) {
+                LOG.info("节点维度归因已由其他请求写回: taskId={}, nodeId={}", taskId, nodeId);
+                return new NodeDimensionAttributionDTO(taskId, nodeId, resultNode.dimensionStatus(), resultNode.dimensionAttribution());
+            }
+            AttributionTreeResultNodeDTO completedNode = withDimensionAttribution(
+                    resultNode, DimensionAttributionStatus.COMPLETED, items);
+            result.setResultTree(toJson(replaceResultNode(resultTree, completedNode), "归因结果序列化失败"));
+            if (resultDao.updateByTaskIdAndVersion(result) > 0) {
+                LOG.info("节点维度归因按需计算完成: taskId={}, nodeId={}, items={}", taskId, nodeId, items.size());
+                return new NodeDimensionAttributionDTO(taskId, nodeId, DimensionAttributionStatus.COMPLETED, items);
+            }
+            if (attempt >= RESULT_UPDATE_MAX_ATTEMPTS) {
+                throw new SystemException("归因结果并发更新冲突，请稍后重试: " + taskId);
+            }
+            LOG.warn("归因结果版本冲突，重新读取后重试: taskId={}, nodeId={}, version={}, attempt={}",
+                    taskId, nodeId, result.getVersion(), attempt);
+            result = loadResult(taskId);
+        }
+    }
+
     /**
      * 查询归因报告（AI 文本）结果。
      */
@@ -395,6 +659,112 @@ public class AttributionServiceImpl implements AttributionService {
         WeupRmbUtil.asyncRunWithContext(taskExecutor, () -> runAttributionTask(taskId));
     }
 
+    private void submitRollingTask(String taskId) {
+        WeupRmbUtil.asyncRunWithContext(taskExecutor, () -> runRollingAttributionTask(taskId));
+    }
+
+    /**
+     * 实际执行异步连续周期归因任务。
+     * 流程概括：加载任务与树配置、按区间一次取回全部指标的周期序列、对所有相邻周期对批量计算节点指标、
+     * 按节点持久化序列结果并更新状态。连续周期归因只做节点层面的拆解，不做维度归因。
+     */
+    private void runRollingAttributionTask(String taskId) {
+        LOG.info("开始执行连续周期归因任务: taskId={}", taskId);
+        try {
+            AnalysisTask task = taskDao.selectByTaskId(taskId);
+            if (task == null) {
+                throw new SystemException("任务不存在: " + taskId);
+            }
+
+            AttributionTree tree = treeDao.selectByTreeId(task.getTreeId());
+            if (tree == null) {
+                throw new SystemException("归因树不存在: " + task.getTreeId());
+            }
+
+            AttributionTreePlan treePlan = loadTreePlan(tree);
+            markTaskRunning(task, "解析归因树成功", 5);
+
+            FilterCondition queryFilter = mergeFilters(
+                    parseFilter(tree.getGlobalFilter()),
+                    buildListFilter(task.getListId())
+            );
+
+            MetricSeries metricSeries = new MetricBatchQueryPlanner(metricService, metricQueryLimit).fetchSeries(
+                    treePlan.metricIds(),
+                    task.getBaselineDate(),
+                    task.getCompareDate(),
+                    task.getTimeGranularity(),
+                    queryFilter
+            );
+            markTaskRunning(task, "指标序列查询完成", 40);
+            NodeMetricComputationEngine.SweepResult sweepResult =
+                    createNodeMetricComputationEngine().computeSweep(treePlan, metricSeries);
+            markTaskRunning(task, "连续周期贡献度计算完成", 80);
+            persistSeriesResult(taskId, sweepResult);
+            markTaskSuccess(task, "连续周期归因完成");
+            LOG.info("连续周期归因任务完成: taskId={}, pairCount={}", taskId, sweepResult.pairCount());
+        } catch (Exception e) {
+            LOG.error("执行连续周期归因任务失败: taskId={}", taskId, e);
+            markTaskFailed(taskId, e.getMessage());
+        }
+    }
+
+    /**
+     * 将连续周期归因结果按节点持久化（先序顺序，每个节点一行紧凑的序列 JSON），已存在的结果先删除再写入。
+     */
+    private void persistSeriesResult(String taskId, NodeMetricComputationEngine.SweepResult sweepResult) {
+        AttributionTreePlan plan = sweepResult.plan();
+        int[] parents = new int[plan.size()];
+        parents[plan.rootIndex()] = -1;
+        List<AttributionSeriesResult> rows = new ArrayList<>(plan.size());
+        LocalDateTime now = LocalDateTime.now();
+        Deque<Integer> stack = new ArrayDeque<>();
+        stack.push(plan.rootIndex());
+        while (!stack.isEmpty()) {
+            int index = stack.pop();
+            for (int position = plan.childEnd(index) - 1; position >= plan.childStart(index); position--) {
+                int child = plan.childIndex(position);
+                parents[child] = index;
+                stack.push(child);
+            }
+            MetricTreeNodeDTO node = plan.node(index);
+            String parentNodeId = parents[index] < 0 ? null : plan.node(parents[index]).nodeId();
+            NodeSeriesDTO series = new NodeSeriesDTO(
+                    node.nodeId(),
+                    node.nodeName(),
+                    node.metricId(),
+                    parentNodeId,
+                    node.op(),
+                    toDecimalList(sweepResult.values(index)),
+                    toDecimalList(sweepResult.delta(index)),
+                    toDecimalList(sweepResult.deltaRate(index)),
+                    toDecimalList(sweepResult.localContribution(index)),
+                    toDecimalList(sweepResult.globalContribution(index))
+            );
+            AttributionSeriesResult row = new AttributionSeriesResult();
+            row.setTaskId(taskId);
+            row.setNodeSeq(rows.size());
+            row.setNodeId(node.nodeId());
+            row.setParentNodeId(parentNodeId);
+            row.setSeriesData(toJson(series, "连续周期归因结果序列化失败"));
+            row.setCreateTime(now);
+            rows.add(row);
+        }
+        seriesResultDao.deleteByTaskId(taskId);
+        for (List<AttributionSeriesResult> batch : Lists.partition(rows, SERIES_RESULT_INSERT_BATCH)) {
+            seriesResultDao.batchInsert(batch);
+        }
+        LOG.info("连续周期归因结果已写入: taskId={}, nodeCount={}", taskId, rows.size());
+    }
+
+    private List<BigDecimal> toDecimalList(double[] values) {
+        List<BigDecimal> result = new ArrayList<>(values.length);
+        for (double value : values) {
+            result.add(BigDecimal.valueOf(value));
+        }
+        return result;
+    }
+
     /**
      * 实际执行异步归因任务。
      * 流程概括：加载任务与树配置、查询指标值、计算节点指标、逐节点执行维度归因、持久化结果并更新状态。
@@ -412,7 +782,9 @@ public class AttributionServiceImpl implements AttributionService {
                 throw new SystemException("归因树不存在: " + task.getTreeId());
             }
 
-            MetricTreeNodeDTO root = parseJson(tree.getTreeConfig(), MetricTreeNodeDTO.class, "归因树配置格式错误");
+            AttributionTreePlan treePlan = loadTreePlan(tree);
+            task.setTreeVersion(tree.getVersion());
+            task.setTreeUpdateTime(tree.getUpdateTime());
             markTaskRunning(task, "解析归因树成功", 5);
 
             FilterCondition queryFilter = mergeFilters(
@@ -421,7 +793,15 @@ public class AttributionServiceImpl implements AttributionService {
             );
 
             Map<String, NodeMetricComputationEngine.MetricValue> metricValues = buildMetricValueMap(
-                    root,
+                    treePlan.fetchedMetricIds(),
+                    task.getBaselineDate(),
+                    task.getCompareDate(),
+                    task.getTimeGranularity(),
+                    queryFilter
+            );
+            metricValues = deriveMetricValues(
+                    treePlan,
+                    metricValues,
                     task.getBaselineDate(),
                     task.getCompareDate(),
                     task.getTimeGranularity(),
@@ -430,31 +810,87 @@ public class AttributionServiceImpl implements AttributionService {
             markTaskRunning(task, "节点指标值查询完成", 30);
             NodeMetricComputationEngine nodeMetricComputationEngine = createNodeMetricComputationEngine();
             DimensionAttributionEngine dimensionAttributionEngine = createDimensionAttributionEngine();
+            DimensionSliceFetcher dimensionSliceFetcher = createDimensionSliceFetcher();
+            Executor dimensionExecutor = createDimensionExecutor();
             NodeMetricComputationEngine.NodeComputation nodeComputation = nodeMetricComputationEngine.compute(
-                    root,
+                    treePlan,
                     task.getBaselineDate(),
                     task.getCompareDate(),
                     task.getTimeGranularity(),
                     metricValues
             );
             markTaskRunning(task, "节点指标贡献度计算完成", 60);
-            // 开始处理维度归因
-            AttributionTreeResultNodeDTO resultNode = addDimAttributionResult(
+            Map<NodeMetricComputationEngine.NodeComputation, DimensionAttributionStatus> dimensionStatuses = resolveDimensionStatuses(
                     nodeComputation,
-                    nodeComputation.deltaValue(),
-                    nodeComputation.deltaValue(),
-                    task.getBaselineDate(),
-                    task.getCompareDate(),
-                    task.getTimeGranularity(),
-                    dimensionAttributionEngine,
-                    queryFilter);
+                    task.getContributionThreshold(),
+                    task.getDimensionMode());
+            ProgressiveResultPublisher resultPublisher = new ProgressiveResultPublisher(
+                    taskId,
+                    resultTree -> persistResult(taskId, resultTree),
+                    progressiveResultEnabled,
+                    progressiveResultIntervalMillis);
+            AttributionTreeResultNodeDTO resultNode;
+            if (task.getDimensionMode() == DimensionMode.LAZY) {
+                // 按需计算模式：只输出节点层面的结果，维度归因在查询节点时计算
+                resultNode = assembleResultNode(
+                        nodeComputation,
+                        nodeComputation.deltaValue(),
+                        nodeComputation.deltaValue(),
+                        dimensionStatuses,
+                        Collections.emptyMap());
+            } else {
+                // 节点层面的结果先行发布，维度归因尚未完成的节点为 PENDING
+                resultPublisher.publish(assembleResultNode(
+                        nodeComputation,
+                        nodeComputation.deltaValue(),
+                        nodeComputation.deltaValue(),
+                        dimensionStatuses,
+                        Collections.emptyMap()));
+                // 开始处理维度归因
+                if (dimensionBatchFetchEnabled) {
+                    dimensionSliceFetcher.prefetch(
+                            collectSharedDimensionMetrics(nodeComputation, treePlan, dimensionStatuses),
+                            task.getBaselineDate(),
+                            task.getCompareDate(),
+                            task.getTimeGranularity(),
+                            queryFilter,
+                            dimensionExecutor);
+                }
+                resultNode = addDimAttributionResult(
+                        nodeComputation,
+                        treePlan,
+                        dimensionStatuses,
+                        task.getBaselineDate(),
+                        task.getCompareDate(),
+                        task.getTimeGranularity(),
+                        dimensionAttributionEngine,
+                        dimensionSliceFetcher,
+                        queryFilter,
+                        dimensionExecutor,
+                        resultPublisher);
+            }
             markTaskRunning(task, "完成贡献度计算", 90);
-            persistResult(taskId, resultNode);
+            resultPublisher.finish(resultNode);
             markTaskSuccess(task, "归因分析完成");
             LOG.info("归因分析任务完成: taskId={}", taskId);
         } catch (Exception e) {
             LOG.error("执行归因分析任务失败: taskId={}", taskId, e);
-            markTaskFailed(taskId, e.getMessage());
+            Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+            discardPartialResult(taskId);
+            markTaskFailed(taskId, cause.getMessage());
+        }
+    }
+
+    /**
+     * 任务失败时删除已发布的中间结果，避免结果表中残留维度归因状态为 PENDING 的结果树。
+     */
+    private void discardPartialResult(String taskId) {
+        try {
+            if (resultDao.deleteByTaskId(taskId) > 0) {
+                LOG.info("已删除失败任务的中间结果: taskId={}", taskId);
+            }
+        } catch (RuntimeException e) {
+            LOG.warn("删除失败任务的中间结果失败: taskId={}", taskId, e);
         }
     }
 
@@ -478,29 +914,260 @@ public class AttributionServiceImpl implements AttributionService {
         }
     }
 
+    private AttributionResult loadResult(String taskId) {
+        AttributionResult result = resultDao.selectByTaskId(taskId);
+        if (result == null) {
+            throw new SystemException("归因结果不存在: " + taskId);
+        }
+        return result;
+    }
+
+    private AttributionTreeResultNodeDTO parseResultTree(AttributionResult result) {
+        return parseJson(result.getResultTree(), AttributionTreeResultNodeDTO.class, "归因结果格式错误");
+    }
+
+    private AttributionTreeResultNodeDTO findResultNode(AttributionTreeResultNodeDTO resultTree, String nodeId) {
+        Deque<AttributionTreeResultNodeDTO> stack = new ArrayDeque<>();
+        stack.push(resultTree);
+        while (!stack.isEmpty()) {
+            AttributionTreeResultNodeDTO node = stack.pop();
+            if (nodeId.equals(node.nodeId())) {
+                return node;
+            }
+            if (node.children() != null) {
+                node.children().forEach(stack::push);
+            }
+        }
+        throw new SystemException("节点不存在: " + nodeId);
+    }
+
+    /**
+     * 以节点 ID 匹配，返回替换了该节点的新结果树，其余节点原样沿用。
+     */
+    private AttributionTreeResultNodeDTO replaceResultNode(AttributionTreeResultNodeDTO node,
+                                                           AttributionTreeResultNodeDTO replacement) {
+        if (replacement.nodeId().equals(node.nodeId())) {
+            return replacement;
+        }
+        if (node.children() == null || node.children().isEmpty()) {
+            return node;
+        }
+        List<AttributionTreeResultNodeDTO> children = node.children().stream()
+                .map(child -> replaceResultNode(child, replacement))
+                .collect(Collectors.toList());
+        return new AttributionTreeResultNodeDTO(
+                node.nodeId(),
+                node.nodeName(),
+                node.metricId(),
+                node.isRate(),
+                node.op(),
+                node.compareValue(),
+                node.baselineValue(),
+                node.deltaValue(),
+                node.deltaRate(),
+                node.contributionLocal(),
+                node.contributionGlobal(),
+                node.dimensionStatus(),
+                node.dimensionAttribution(),
+                children
+        );
+    }
+
+    private AttributionTreeResultNodeDTO withDimensionAttribution(AttributionTreeResultNodeDTO node,
+                                                                  DimensionAttributionStatus status,
+                                                                  List<DimensionAttributionItemDTO> dimensionAttribution) {
+        return new AttributionTreeResultNodeDTO(
+                node.nodeId(),
+                node.nodeName(),
+                node.metricId(),
+                node.isRate(),
+                node.op(),
+                node.compareValue(),
+                node.baselineValue(),
+                node.deltaValue(),
+                node.deltaRate(),
+                node.contributionLocal(),
+                node.contributionGlobal(),
+                status,
+                dimensionAttribution,
+                node.children()
+        );
+    }
+
+    /**
+     * 按需计算单个节点的维度归因：节点配置取自归因树，节点指标值取自已持久化的结果，
+     * 未做共享维度预取，派生节点的维度切片走远程取数。
+     * 归因树在任务执行后被修改时，节点配置与已持久化的结果不再对应，拒绝计算。
+     */
+    private List<DimensionAttributionItemDTO> computeDeferredDimensionAttribution(AnalysisTask task,
+                                                                                  AttributionTreeResultNodeDTO resultNode) {
+        AttributionTree tree = treeDao.selectByTreeId(task.getTreeId());
+        if (tree == null) {
+            throw new SystemException("归因树不存在: " + task.getTreeId());
+        }
+        if (!Objects.equals(task.getTreeVersion(), tree.getVersion())
+                || !Objects.equals(task.getTreeUpdateTime(), tree.getUpdateTime())) {
+            LOG.warn("归因树配置已变更，拒绝按需计算维度归因: taskId={}, treeId={}, taskTreeVersion={}, treeVersion={}",
+                    task.getTaskId(), tree.getTreeId(), task.getTreeVersion(), tree.getVersion());
+            throw new SystemException("归因树配置在任务执行后已变更，无法按需计算维度归因，请重新创建任务: " + task.getTreeId());
+        }
+        AttributionTreePlan treePlan = loadTreePlan(tree);
+        MetricTreeNodeDTO treeNode = null;
+        for (int i = 0; i < treePlan.size(); i++) {
+            if (resultNode.nodeId().equals(treePlan.node(i).nodeId())) {
+                treeNode = treePlan.node(i);
+                break;
+            }
+        }
+        if (treeNode == null) {
+            throw new SystemException("归因树中不存在节点: " + resultNode.nodeId());
+        }
+
+        FilterCondition queryFilter = mergeFilters(
+                parseFilter(tree.getGlobalFilter()),
+                buildListFilter(task.getListId())
+        );
+        NodeMetricComputationEngine.NodeComputation node = NodeMetricComputationEngine.NodeComputation.detached(
+                treeNode,
+                resultNode.compareValue(),
+                resultNode.baselineValue(),
+                resultNode.deltaValue(),
+                resultNode.deltaRate());
+        try {
+            return buildDimensionAttributionForNode(
+                    node,
+                    DimensionAttributionStatus.COMPLETED,
+                    treePlan,
+                    task.getBaselineDate(),
+                    task.getCompareDate(),
+                    task.getTimeGranularity(),
+                    createDimensionAttributionEngine(),
+                    createDimensionSliceFetcher(),
+                    queryFilter,
+                    deferredDimensionExecutor.get()
+            ).join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            LOG.error("节点维度归因按需计算失败: taskId={}, nodeId={}", task.getTaskId(), resultNode.nodeId(), cause);
+            throw new SystemException("节点维度归因计算失败: " + cause.getMessage());
+        }
+    }
+
     /**
-     * 将节点指标值与维度归因结果递归组装为最终的归因结果树。
+     * 为整棵树执行维度归因并组装最终的归因结果树。
+     * 各节点、各维度的取数与计算相互独立，统一提交到有界执行器并行执行，全部完成后再递归组装结果。
+     * 只有状态为已完成的节点执行维度归因，跳过与剪枝的节点维度归因结果为空。
+     * 等待期间由发布器在当前（任务）线程上按间隔写入中间结果，维度线程池只做取数与计算。
      */
-    private AttributionTreeResultNodeDTO addDimAttributionResult(NodeMetricComputationEngine.NodeComputation node,
-                                                                 BigDecimal rootDelta,
-                                                                 BigDecimal parentDelta,
+    private AttributionTreeResultNodeDTO addDimAttributionResult(NodeMetricComputationEngine.NodeComputation root,
+                                                                 AttributionTreePlan treePlan,
+                                                                 Map<NodeMetricComputationEngine.NodeComputation, DimensionAttributionStatus> dimensionStatuses,
                                                                  LocalDate baselineDate,
                                                                  LocalDate compareDate,
                                                                  DateGranularity granularity,
-                                                                  DimensionAttributionEngine dimensionEngine,
-                                                                 FilterCondition queryFilter) {
+                                                                 DimensionAttributionEngine dimensionEngine,
+                                                                 DimensionSliceFetcher sliceFetcher,
+                                                                 FilterCondition queryFilter,
+                                                                 Executor dimensionExecutor,
+                                                                 ProgressiveResultPublisher resultPublisher) {
+        Map<NodeMetricComputationEngine.NodeComputation, CompletableFuture<List<DimensionAttributionItemDTO>>> dimensionFutures =
+                new IdentityHashMap<>();
+        Deque<NodeMetricComputationEngine.NodeComputation> stack = new ArrayDeque<>();
+        stack.push(root);
+        while (!stack.isEmpty()) {
+            NodeMetricComputationEngine.NodeComputation node = stack.pop();
+            node.children().forEach(stack::push);
+            dimensionFutures.put(node, buildDimensionAttributionForNode(
+                    node,
+                    dimensionStatuses.get(node),
+                    treePlan,
+                    baselineDate,
+                    compareDate,
+                    granularity,
+                    dimensionEngine,
+                    sliceFetcher,
+                    queryFilter,
+                    dimensionExecutor
+            ));
+        }
+        resultPublisher.awaitCompletion(
+                CompletableFuture.allOf(dimensionFutures.values().toArray(new CompletableFuture<?>[0])),
+                () -> (int) dimensionFutures.values().stream().filter(CompletableFuture::isDone).count(),
+                () -> assembleResultNode(root, root.deltaValue(), root.deltaValue(), dimensionStatuses, dimensionFutures));
+        return assembleResultNode(root, root.deltaValue(), root.deltaValue(), dimensionStatuses, dimensionFutures);
+    }
+
+    /**
+     * 判定整棵树各节点的维度归因状态；按需计算模式下需要维度归因的节点标记为待计算。
+     */
+    private Map<NodeMetricComputationEngine.NodeComputation, DimensionAttributionStatus> resolveDimensionStatuses(
+            NodeMetricComputationEngine.NodeComputation root,
+            BigDecimal contributionThreshold,
+            DimensionMode dimensionMode) {
+        Map<NodeMetricComputationEngine.NodeComputation, DimensionAttributionStatus> statuses = new IdentityHashMap<>();
+        Deque<NodeMetricComputationEngine.NodeComputation> stack = new ArrayDeque<>();
+        stack.push(root);
+        int prunedCount = 0;
+        while (!stack.isEmpty()) {
+            NodeMetricComputationEngine.NodeComputation node = stack.pop();
+            node.children().forEach(stack::push);
+            DimensionAttributionStatus status = resolveDimensionStatus(node, root.deltaValue(), contributionThreshold);
+            if (status == DimensionAttributionStatus.PRUNED) {
+                prunedCount++;
+            } else if (status == DimensionAttributionStatus.COMPLETED && dimensionMode == DimensionMode.LAZY) {
+                status = DimensionAttributionStatus.DEFERRED;
+            }
+            statuses.put(node, status);
+        }
+        if (prunedCount > 0) {
+            LOG.info("维度归因剪枝: threshold={}, prunedCount={}, nodeCount={}", contributionThreshold, prunedCount, statuses.size());
+        }
+        return statuses;
+    }
+
+    /**
+     * 判定节点的维度归因状态：未配置维度或无差异时跳过；根节点增量非零且节点全局贡献度绝对值低于阈值时剪枝。
+     * 根节点增量接近 0 时全局贡献度无意义，不剪枝。
+     */
+    private DimensionAttributionStatus resolveDimensionStatus(NodeMetricComputationEngine.NodeComputation node,
+                                                              BigDecimal rootDelta,
+                                                              BigDecimal contributionThreshold) {
+        List<String> dimensions = node.node().dimensions();
+        if (dimensions == null || dimensions.isEmpty() || node.deltaValue().compareTo(BigDecimal.ZERO) == 0) {
+            return DimensionAttributionStatus.SKIPPED;
+        }
+        if (contributionThreshold == null || contributionThreshold.signum() <= 0 || rootDelta.abs().compareTo(epsilon) < 0) {
+            return DimensionAttributionStatus.COMPLETED;
+        }
+        BigDecimal globalContribution = computeContribution(node.deltaValue(), rootDelta);
+        return globalContribution.abs().compareTo(contributionThreshold) < 0
+                ? DimensionAttributionStatus.PRUNED
+                : DimensionAttributionStatus.COMPLETED;
+    }
+
+    /**
+     * 将节点指标值与维度归因结果递归组装为归因结果树。
+     * 需要维度归因但尚未完成（或未提交）的节点状态为 PENDING、维度归因结果为空，用于组装中间结果。
+     */
+    private AttributionTreeResultNodeDTO assembleResultNode(NodeMetricComputationEngine.NodeComputation node,
+                                                            BigDecimal rootDelta,
+                                                            BigDecimal parentDelta,
+                                                            Map<NodeMetricComputationEngine.NodeComputation, DimensionAttributionStatus> dimensionStatuses,
+                                                            Map<NodeMetricComputationEngine.NodeComputation, CompletableFuture<List<DimensionAttributionItemDTO>>> dimensionFutures) {
         List<AttributionTreeResultNodeDTO> childResults = node.children().stream()
-                .map(child -> addDimAttributionResult(child, rootDelta, node.deltaValue(), baselineDate, compareDate, granularity, dimensionEngine, queryFilter))
+                .map(child -> assembleResultNode(child, rootDelta, node.deltaValue(), dimensionStatuses, dimensionFutures))
                 .collect(Collectors.toList());
 
-        List<DimensionAttributionItemDTO> dimensionAttribution = buildDimensionAttributionForNode(
-                node,
-                baselineDate,
-                compareDate,
-                granularity,
-                dimensionEngine,
-                queryFilter
-        );
+        DimensionAttributionStatus dimensionStatus = dimensionStatuses.get(node);
+        List<DimensionAttributionItemDTO> dimensionAttribution = Collections.emptyList();
+        CompletableFuture<List<DimensionAttributionItemDTO>> dimensionFuture = dimensionFutures.get(node);
+        if (dimensionStatus == DimensionAttributionStatus.COMPLETED) {
+            if (dimensionFuture != null && dimensionFuture.isDone() && !dimensionFuture.isCompletedExceptionally()) {
+                dimensionAttribution = dimensionFuture.join();
+            } else {
+                dimensionStatus = DimensionAttributionStatus.PENDING;
+            }
+        }
 
         BigDecimal localContribution = computeContribution(node.deltaValue(), parentDelta);
         BigDecimal globalContribution = computeContribution(node.deltaValue(), rootDelta);
@@ -517,66 +1184,201 @@ public class AttributionServiceImpl implements AttributionService {
                 node.deltaRate(),
                 localContribution,
                 globalContribution,
+                dimensionStatus,
                 dimensionAttribution,
                 childResults
         );
     }
 
     /**
-     * 针对单个节点执行维度归因：串行查询维度取值，调用算法模块计算贡献度。
+     * 针对单个节点执行维度归因：每个维度独立查询维度切片（基准期与对比期可合并为一次请求）并调用算法模块计算贡献度，
+     * 各维度并行执行，结果按维度配置顺序合并。
      */
-    private List<DimensionAttributionItemDTO> buildDimensionAttributionForNode(NodeMetricComputationEngine.NodeComputation node,
-                                                                              LocalDate baselineDate,
-                                                                              LocalDate compareDate,
-                                                                              DateGranularity granularity,
-                                                                              DimensionAttributionEngine dimensionEngine,
-                                                                              FilterCondition queryFilter) {
+    private CompletableFuture<List<DimensionAttributionItemDTO>> buildDimensionAttributionForNode(NodeMetricComputationEngine.NodeComputation node,
+                                                                                                 DimensionAttributionStatus status,
+                                                                                                 AttributionTreePlan treePlan,
+                                                                                                 LocalDate baselineDate,
+                                                                                                 LocalDate compareDate,
+                                                                                                 DateGranularity granularity,
+                                                                                                 DimensionAttributionEngine dimensionEngine,
+                                                                                                 DimensionSliceFetcher sliceFetcher,
+                                                                                                 FilterCondition queryFilter,
+                                                                                                 Executor dimensionExecutor) {
         List<String> dimensions = node.node().dimensions();
-        if (dimensions == null || dimensions.isEmpty()) {
-            LOG.debug("节点{} 未配置维度，跳过维度归因", node.node().nodeId());
-            return Collections.emptyList();
+        if (status == DimensionAttributionStatus.SKIPPED) {
+            LOG.debug("节点{} 未配置维度或对比期与基准期无差异，跳过维度归因", node.node().nodeId());
+            return CompletableFuture.completedFuture(Collections.emptyList());
         }
-        if (node.deltaValue().compareTo(BigDecimal.ZERO) == 0) {
-            LOG.debug("节点{} 对比期与基准期无差异，跳过维度归因", node.node().nodeId());
-            return Collections.emptyList();
+        if (status == DimensionAttributionStatus.PRUNED) {
+            LOG.debug("节点{} 全局贡献度低于阈值，剪枝维度归因", node.node().nodeId());
+            return CompletableFuture.completedFuture(Collections.emptyList());
         }
 
-        List<DimensionAttributionItemDTO> results = new ArrayList<>();
-        for (String dimensionId : dimensions) {
-            LOG.info("维度取数开始: nodeId={}, metricId={}, dimensionId={}, baseline={}, compare={}",
-                    node.node().nodeId(), node.node().metricId(), dimensionId, baselineDate, compareDate);
-            Map<String, BigDecimal> baselineValues = queryDimensionValues(
+        List<CompletableFuture<List<DimensionAttributionItemDTO>>> dimensionResults = dimensions.stream()
+                .map(dimensionId -> CompletableFuture.supplyAsync(() -> analyzeDimension(
+                        node,
+                        treePlan,
+                        dimensionId,
+                        baselineDate,
+                        compareDate,
+                        granularity,
+                        dimensionEngine,
+                        sliceFetcher,
+                        queryFilter
+                ), dimensionExecutor))
+                .collect(Collectors.toList());
+        return CompletableFuture.allOf(dimensionResults.toArray(new CompletableFuture<?>[0]))
+                .thenApply(ignored -> dimensionResults.stream()
+                        .flatMap(future -> future.join().stream())
+                        .collect(Collectors.toList()));
+    }
+
+    private List<DimensionAttributionItemDTO> analyzeDimension(NodeMetricComputationEngine.NodeComputation node,
+                                                               AttributionTreePlan treePlan,
+                                                               String dimensionId,
+                                                               LocalDate baselineDate,
+                                                               LocalDate compareDate,
+                                                               DateGranularity granularity,
+                                                               DimensionAttributionEngine dimensionEngine,
+                                                               DimensionSliceFetcher sliceFetcher,
+                                                               FilterCondition queryFilter) {
+        DimensionSlice derivedSlice = deriveDimensionSlice(node, treePlan, dimensionId, sliceFetcher);
+        if (derivedSlice != null) {
+            LOG.info("维度切片由子节点派生: nodeId={}, dimensionId={}, baselineCount={}, compareCount={}",
+                    node.node().nodeId(), dimensionId, derivedSlice.baselineCount(), derivedSlice.compareCount());
+            if (sampleDerivedVerification()) {
+                verifyDerivedSlice(node, dimensionId, derivedSlice, baselineDate, compareDate, granularity, sliceFetcher, queryFilter);
+            }
+            List<DimensionAttributionItemDTO> items = dimensionEngine.analyze(dimensionId, derivedSlice);
+            LOG.info("维度归因输出: nodeId={}, dimensionId={}, items={}", node.node().nodeId(), dimensionId, items.size());
+            return items;
+        }
+        LOG.info("维度取数开始: nodeId={}, metricId={}, dimensionId={}, baseline={}, compare={}",
+                node.node().nodeId(), node.node().metricId(), dimensionId, baselineDate, compareDate);
+        // 自适应取数：先用较小的上限取数，切片被截断且归因结果不足以下结论时按 4 倍放大上限重取，直至 top-limit；
+        // 只有显式声明可加的指标才以节点合计值计算长尾残差，去重计数、均值等的合计值不等于各维度值之和
+        int limit = dimensionAdaptiveFetchEnabled ? Math.min(dimensionInitialLimit, dimensionTopLimit) : dimensionTopLimit;
+        NodeMetricComputationEngine.MetricValue totals = dimensionAdaptiveFetchEnabled && AttributionTreePlan.isAdditive(node.node())
+                ? new NodeMetricComputationEngine.MetricValue(node.baselineValue(), node.compareValue())
+                : null;
+        List<DimensionAttributionItemDTO> items;
+        while (true) {
+            DimensionSlice slice = sliceFetcher.fetch(
                     node.node().metricId(),
                     dimensionId,
                     baselineDate,
-                    baselineDate,
-                    granularity,
-                    queryFilter
-            );
-            Map<String, BigDecimal> compareValues = queryDimensionValues(
-                    node.node().metricId(),
-                    dimensionId,
-                    compareDate,
                     compareDate,
                     granularity,
-                    queryFilter
+                    queryFilter,
+                    limit,
+                    totals
             );
-            LOG.info("维度取数完成: nodeId={}, dimensionId={}, baselineCount={}, compareCount={}",
-                    node.node().nodeId(), dimensionId, baselineValues.size(), compareValues.size());
+            LOG.info("维度取数完成: nodeId={}, dimensionId={}, limit={}, baselineCount={}, compareCount={}, truncated={}",
+                    node.node().nodeId(), dimensionId, limit, slice.baselineCount(), slice.compareCount(), slice.truncated());
+            items = dimensionEngine.analyze(dimensionId, slice);
+            if (!slice.truncated() || limit >= dimensionTopLimit || dimensionEngine.isConclusive(items)) {
+                break;
+            }
+            int nextLimit = Math.min(limit * 4, dimensionTopLimit);
+            LOG.info("维度切片被截断且累计EP未达阈值，扩大取数范围: nodeId={}, dimensionId={}, limit={} -> {}",
+                    node.node().nodeId(), dimensionId, limit, nextLimit);
+            limit = nextLimit;
+        }
+        if (!items.isEmpty()) {
+            LOG.info("维度归因输出: nodeId={}, dimensionId={}, items={}", node.node().nodeId(), dimensionId, items.size());
+        } else {
+            LOG.info("维度归因无显著结果: nodeId={}, dimensionId={}", node.node().nodeId(), dimensionId);
+        }
+        return items;
+    }
 
-            List<DimensionAttributionItemDTO> items = dimensionEngine.analyze(
-                    dimensionId,
-                    compareValues,
-                    baselineValues
-            );
-            if (!items.isEmpty()) {
-                LOG.info("维度归因输出: nodeId={}, dimensionId={}, items={}", node.node().nodeId(), dimensionId, items.size());
-                results.addAll(items);
-            } else {
-                LOG.info("维度归因无显著结果: nodeId={}, dimensionId={}", node.node().nodeId(), dimensionId);
+    /**
+     * 派生加减节点的维度切片：子节点在该维度下均已有完整的预取切片时逐维度值相加减，否则返回 null 走远程取数。
+     */
+    private DimensionSlice deriveDimensionSlice(NodeMetricComputationEngine.NodeComputation node,
+                                                AttributionTreePlan treePlan,
+                                                String dimensionId,
+                                                DimensionSliceFetcher sliceFetcher) {
+        int index = treePlan.indexOf(node.node());
+        if (index < 0 || !treePlan.derived(index)) {
+            return null;
+        }
+        List<DimensionSlice> childSlices = new ArrayList<>(treePlan.childEnd(index) - treePlan.childStart(index));
+        for (int position = treePlan.childStart(index); position < treePlan.childEnd(index); position++) {
+            childSlices.add(sliceFetcher.prefetched(treePlan.node(treePlan.childIndex(position)).metricId(), dimensionId));
+        }
+        return metricValueDeriver.deriveSlice(treePlan.operation(index), childSlices);
+    }
+
+    /**
+     * 抽样校验派生切片：远程取回该节点的切片，逐维度值比较两个周期的取值并记录最大相对偏差。
+     */
+    private void verifyDerivedSlice(NodeMetricComputationEngine.NodeComputation node,
+                                    String dimensionId,
+                                    DimensionSlice derivedSlice,
+                                    LocalDate baselineDate,
+                                    LocalDate compareDate,
+                                    DateGranularity granularity,
+                                    DimensionSliceFetcher sliceFetcher,
+                                    FilterCondition queryFilter) {
+        DimensionSlice remoteSlice = sliceFetcher.fetchRemote(
+                node.node().metricId(), dimensionId, baselineDate, compareDate, granularity, queryFilter, dimensionTopLimit);
+        double maxDrift = 0D;
+        String maxDriftValue = null;
+        for (int i = 0; i < remoteSlice.size(); i++) {
+            int derivedIndex = derivedSlice.indexOf(remoteSlice.value(i));
+            double derivedBaseline = derivedIndex < 0 ? 0D : derivedSlice.baseline(derivedIndex);
+            double derivedCompare = derivedIndex < 0 ? 0D : derivedSlice.compare(derivedIndex);
+            double drift = Math.max(relativeDrift(derivedBaseline, remoteSlice.baseline(i)),
+                    relativeDrift(derivedCompare, remoteSlice.compare(i)));
+            if (drift > maxDrift) {
+                maxDrift = drift;
+                maxDriftValue = remoteSlice.value(i);
+            }
+        }
+        if (maxDrift > deriveDriftTolerance) {
+            LOG.warn("派生维度切片与远程取值偏差超限: nodeId={}, dimensionId={}, maxDrift={}, dimensionValue={}, remoteTruncated={}",
+                    node.node().nodeId(), dimensionId, maxDrift, maxDriftValue, remoteSlice.truncated());
+        } else {
+            LOG.info("派生维度切片校验通过: nodeId={}, dimensionId={}, maxDrift={}", node.node().nodeId(), dimensionId, maxDrift);
+        }
+    }
+
+    /**
+     * 收集需要维度归因的节点，按维度聚合其指标 ID；仅保留被两个及以上指标共享的维度，
+     * 单个指标的维度逐节点查询即可（可按指标排序截断，返回数据更少）。
+     * 派生的加减节点不取自身切片，改为预取其子节点指标的切片，由子节点切片派生；被剪枝的节点不参与预取。
+     */
+    private Map<String, Set<String>> collectSharedDimensionMetrics(NodeMetricComputationEngine.NodeComputation root,
+                                                                   AttributionTreePlan treePlan,
+                                                                   Map<NodeMetricComputationEngine.NodeComputation, DimensionAttributionStatus> dimensionStatuses) {
+        Map<String, Set<String>> metricIdsByDimension = new LinkedHashMap<>();
+        Deque<NodeMetricComputationEngine.NodeComputation> stack = new ArrayDeque<>();
+        stack.push(root);
+        while (!stack.isEmpty()) {
+            NodeMetricComputationEngine.NodeComputation node = stack.pop();
+            node.children().forEach(stack::push);
+            List<String> dimensions = node.node().dimensions();
+            if (StringUtils.isBlank(node.node().metricId())
+                    || dimensionStatuses.get(node) != DimensionAttributionStatus.COMPLETED) {
+                continue;
+            }
+            int index = treePlan.indexOf(node.node());
+            boolean deriveSlice = index >= 0 && treePlan.derived(index)
+                    && (treePlan.operation(index) == OperationType.ADD || treePlan.operation(index) == OperationType.SUB);
+            for (String dimensionId : dimensions) {
+                Set<String> metricIds = metricIdsByDimension.computeIfAbsent(dimensionId, key -> new LinkedHashSet<>());
+                if (!deriveSlice) {
+                    metricIds.add(node.node().metricId());
+                    continue;
+                }
+                for (int position = treePlan.childStart(index); position < treePlan.childEnd(index); position++) {
+                    metricIds.add(treePlan.node(treePlan.childIndex(position)).metricId());
+                }
             }
         }
-        return results;
+        metricIdsByDimension.values().removeIf(metricIds -> metricIds.size() < 2);
+        return metricIdsByDimension;
     }
 
     private BigDecimal computeContribution(BigDecimal nodeDelta, BigDecimal totalDelta) {
@@ -603,13 +1405,9 @@ public class AttributionServiceImpl implements AttributionService {
                 metricQueryLimit,
                 queryFilter
         );
-        List<Map<String, Object>> rows = metricService.queryResultList(req);
         Map<String, BigDecimal> aggregated = new HashMap<>();
-        for (Map<String, Object> row : rows) {
-            String dateKey = Objects.toString(row.get(dimensionField));
-            BigDecimal value = toBigDecimal(row.get(metricId));
-            aggregated.merge(dateKey, value, BigDecimal::add);
-        }
+        metricService.queryRows(req, row -> aggregated.merge(
+                row.getString(dimensionField, "null"), row.getDecimal(metricId), BigDecimal::add));
         return aggregated.entrySet().stream()
                 .sorted(Map.Entry.comparingByKey())
                 .map(entry -> new MetricPointDTO(entry.getKey(), entry.getValue()))
@@ -618,13 +1416,17 @@ public class AttributionServiceImpl implements AttributionService {
 
     /**
      * 构建节点计算所需的指标值缓存，提前查询所有涉及的指标。
+     * 开启批量取数时由 {@link MetricBatchQueryPlanner} 按 50 个指标一组合并请求，否则逐指标、逐日期查询。
      */
-    private Map<String, NodeMetricComputationEngine.MetricValue> buildMetricValueMap(MetricTreeNodeDTO root,
+    private Map<String, NodeMetricComputationEngine.MetricValue> buildMetricValueMap(List<String> metricIds,
                                                                                     LocalDate baselineDate,
                                                                                     LocalDate compareDate,
                                                                                     DateGranularity granularity,
                                                                                     FilterCondition queryFilter) {
-        Set<String> metricIds = collectMetricIds(root);
+        if (metricBatchEnabled) {
+            return new MetricBatchQueryPlanner(metricService, metricQueryLimit)
+                    .fetch(metricIds, baselineDate, compareDate, granularity, queryFilter);
+        }
         Map<String, NodeMetricComputationEngine.MetricValue> metricValues = new HashMap<>(metricIds.size());
         for (String metricId : metricIds) {
             BigDecimal baselineValue = queryMetricValue(metricId, baselineDate, baselineDate, granularity, queryFilter);
@@ -635,17 +1437,56 @@ public class AttributionServiceImpl implements AttributionService {
         return metricValues;
     }
 
-    private Set<String> collectMetricIds(MetricTreeNodeDTO node) {
-        Set<String> metricIds = new HashSet<>();
-        if (node.metricId() != null && !node.metricId().isBlank()) {
-            metricIds.add(node.metricId());
+    /**
+     * 补齐派生节点的指标值；按抽样比例对派生指标额外远程取数，记录派生值与远程值的偏差。
+     */
+    private Map<String, NodeMetricComputationEngine.MetricValue> deriveMetricValues(AttributionTreePlan treePlan,
+                                                                                   Map<String, NodeMetricComputationEngine.MetricValue> fetchedValues,
+                                                                                   LocalDate baselineDate,
+                                                                                   LocalDate compareDate,
+                                                                                   DateGranularity granularity,
+                                                                                   FilterCondition queryFilter) {
+        if (treePlan.fetchedMetricIds().size() == treePlan.metricIds().size()) {
+            return fetchedValues;
         }
-        if (node.children() != null) {
-            for (MetricTreeNodeDTO child : node.children()) {
-                metricIds.addAll(collectMetricIds(child));
+        Map<String, NodeMetricComputationEngine.MetricValue> metricValues = metricValueDeriver.derive(treePlan, fetchedValues);
+        List<String> sampledMetricIds = treePlan.metricIds().stream()
+                .filter(metricId -> !fetchedValues.containsKey(metricId))
+                .filter(metricId -> sampleDerivedVerification())
+                .collect(Collectors.toList());
+        if (sampledMetricIds.isEmpty()) {
+            return metricValues;
+        }
+        Map<String, NodeMetricComputationEngine.MetricValue> remoteValues = buildMetricValueMap(
+                sampledMetricIds, baselineDate, compareDate, granularity, queryFilter);
+        for (String metricId : sampledMetricIds) {
+            NodeMetricComputationEngine.MetricValue derived = metricValues.get(metricId);
+            NodeMetricComputationEngine.MetricValue remote = remoteValues.get(metricId);
+            double drift = Math.max(
+                    relativeDrift(derived.baselineValue().doubleValue(), remote.baselineValue().doubleValue()),
+                    relativeDrift(derived.compareValue().doubleValue(), remote.compareValue().doubleValue()));
+            if (drift > deriveDriftTolerance) {
+                LOG.warn("派生指标值与远程取值偏差超限: metricId={}, drift={}, derived={}, remote={}", metricId, drift, derived, remote);
+            } else {
+                LOG.info("派生指标值校验通过: metricId={}, drift={}", metricId, drift);
             }
         }
-        return metricIds;
+        return metricValues;
+    }
+
+    private boolean sampleDerivedVerification() {
+        return deriveVerifySampleRate > 0D && ThreadLocalRandom.current().nextDouble() < deriveVerifySampleRate;
+    }
+
+    private double relativeDrift(double derived, double remote) {
+        return Math.abs(derived - remote) / Math.max(Math.abs(remote), epsilon.doubleValue());
+    }
+
+    /**
+     * 获取归因树的执行计划，树配置未变化时直接复用缓存中的编译结果。
+     */
+    private AttributionTreePlan loadTreePlan(AttributionTree tree) {
+        return treePlanCache.get(tree, json -> parseJson(json, MetricTreeNodeDTO.class, "归因树配置格式错误"));
     }
 
     private BigDecimal queryMetricValue(String metricId,
@@ -663,40 +1504,10 @@ public class AttributionServiceImpl implements AttributionService {
                 metricQueryLimit,
                 queryFilter
         );
-        List<Map<String, Object>> rows = metricService.queryResultList(req);
-        BigDecimal value = rows.stream()
-                .map(row -> toBigDecimal(row.get(metricId)))
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-        LOG.info("单日指标取数: metricId={}, start_date={}, end_date={}, value={}, rows={}", metricId, start, end, value, rows.size());
-        return value;
-    }
-
-    private Map<String, BigDecimal> queryDimensionValues(String metricId,
-                                                         String dimensionId,
-                                                         LocalDate start,
-                                                         LocalDate end,
-                                                         DateGranularity granularity,
-                                                         FilterCondition queryFilter) {
-        List<FieldOrder> orders = List.of(new FieldOrder(metricId, "desc"));
-        Req_04302590_01 req = buildMetricQueryRequest(
-                metricId,
-                List.of(dimensionId),
-                start,
-                end,
-                granularity,
-                orders,
-                dimensionTopLimit,
-                queryFilter
-        );
-        List<Map<String, Object>> rows = metricService.queryResultList(req);
-        Map<String, BigDecimal> aggregated = new HashMap<>();
-        for (Map<String, Object> row : rows) {
-            String dimValue = Objects.toString(row.getOrDefault(dimensionId, "UNKNOWN"));
-            BigDecimal value = toBigDecimal(row.get(metricId));
-            aggregated.merge(dimValue, value, BigDecimal::add);
-        }
-        LOG.info("维度取数: metricId={}, dimensionId={}, start_date={}, end_date={}, rows={}", metricId, dimensionId, start, end, rows.size());
-        return aggregated;
+        BigDecimal[] value = {BigDecimal.ZERO};
+        int rowCount = metricService.queryRows(req, row -> value[0] = value[0].add(row.getDecimal(metricId)));
+        LOG.info("单日指标取数: metricId={}, start_date={}, end_date={}, value={}, rows={}", metricId, start, end, value[0], rowCount);
+        return value[0];
     }
 
     private Req_04302590_01 buildMetricQueryRequest(String metricId,
@@ -707,55 +1518,22 @@ public class AttributionServiceImpl implements AttributionService {
                                                     List<FieldOrder> orders,
                                                     int limit,
                                                     FilterCondition queryFilter) {
-        Req_04302590_01 req = new Req_04302590_01();
-        req.setMetrics(List.of(metricId));
-        req.setDimensions(dimensions);
-        req.setTimeDimensions(List.of(buildTimeDimension(granularity, start, end)));
-        req.setSort(orders);
-        req.setLimit(limit);
-        req.setFilters(cloneFilter(queryFilter));
+        Req_04302590_01 req = MetricQuerySupport.buildRequest(
+                List.of(metricId),
+                dimensions,
+                start,
+                end,
+                granularity,
+                orders,
+                limit,
+                queryFilter
+        );
         LOG.info("METRICS QUERY REQ is: {}", JSONUtil.toDenseJsonStr(req));
         return req;
     }
 
-
-    private TimeDimension buildTimeDimension(DateGranularity granularity, LocalDate start, LocalDate end) {
-        TimeDimension timeDimension = new TimeDimension();
-        timeDimension.setDimension(resolveTimeDimensionField());
-        timeDimension.setGranularity(granularity.name().toLowerCase());
-        LocalDate normalizedStart = normalizeRangeStart(start, granularity);
-        LocalDate normalizedEnd = normalizeRangeEnd(end, granularity);
-        timeDimension.setDateRange(List.of(
-                normalizedStart.format(DATE_FORMATTER),
-                normalizedEnd.format(DATE_FORMATTER)
-        ));
-        return timeDimension;
-    }
-
     private String resolveTimeDimensionField() {
-        return "dim_calendar_a.fmt_date";
-    }
-
-    private LocalDate normalizeRangeStart(LocalDate date, DateGranularity granularity) {
-        return switch (granularity) {
-            case YEAR -> date.withDayOfYear(1);
-            case MONTH -> date.withDayOfMonth(1);
-            case WEEK -> date.minusDays((date.getDayOfWeek().getValue() + 6) % 7);
-            default -> date;
-        };
-    }
-
-    private LocalDate normalizeRangeEnd(LocalDate date, DateGranularity granularity) {
-        return switch (granularity) {
-            case YEAR -> date.withDayOfYear(1).plusYears(1).minusDays(1);
-            case MONTH -> date.withDayOfMonth(1).plusMonths(1).minusDays(1);
-            case WEEK -> {
-                int value = date.getDayOfWeek().getValue();
-                int offset = (7 - (value % 7)) % 7;
-                yield date.plusDays(offset);
-            }
-            default -> date;
-        };
+        return MetricQuerySupport.TIME_DIMENSION_FIELD;
     }
 
     private void markTaskRunning(AnalysisTask task, String message, int progress) {
@@ -800,9 +1578,11 @@ public class AttributionServiceImpl implements AttributionService {
                 task.getTaskId(),
                 task.getTreeId(),
                 task.getTreeName(),
+                task.getTaskType(),
                 task.getListId(),
                 task.getListName(),
                 task.getContributionThreshold(),
+                task.getDimensionMode(),
                 task.getTimeGranularity(),
                 formatDate(task.getBaselineDate()),
                 formatDate(task.getCompareDate()),
@@ -883,21 +1663,14 @@ public class AttributionServiceImpl implements AttributionService {
         return FilterCondition.operation("list_manage_raw_data.list_id", EOperator.EQ, listId);
     }
 
-    private FilterCondition mergeFilters(FilterCondition first, FilterCondition second) {
-        if (first == null) {
-            return cloneFilter(second);
-        }
-        if (second == null) {
-            return cloneFilter(first);
-        }
-        return FilterCondition.and(List.of(cloneFilter(first), cloneFilter(second)));
-    }
-
-    private FilterCondition cloneFilter(FilterCondition filter) {
-        if (filter == null) {
-            return null;
+    /**
+     * 合并并规范化过滤条件，结果为不可变实例，整个任务内所有查询直接共享，无需逐次深拷贝。
+     */
+    private ImmutableFilterCondition mergeFilters(FilterCondition first, FilterCondition second) {
+        if (first == null || second == null) {
+            return FilterConditionNormalizer.normalize(first != null ? first : second);
         }
-        return FilterCondition.fromJson(FilterCondition.toJson(filter));
+        return FilterConditionNormalizer.normalize(FilterCondition.and(List.of(first, second)));
     }
 
     private BigDecimal safeDivide(BigDecimal numerator, BigDecimal denominator) {
@@ -907,25 +1680,4 @@ public class AttributionServiceImpl implements AttributionService {
         return numerator.divide(denominator, MathContext.DECIMAL64);
     }
 
-    private BigDecimal toBigDecimal(Object value) {
-        if (value == null) {
-            return BigDecimal.ZERO;
-        }
-        if (value instanceof BigDecimal bigDecimal) {
-            return bigDecimal;
-        }
-        if (value instanceof Number number) {
-            return BigDecimal.valueOf(number.doubleValue());
-        }
-        try {
-            String text = value.toString();
-            if (text.isBlank()) {
-                return BigDecimal.ZERO;
-            }
-            return new BigDecimal(text);
-        } catch (NumberFormatException ex) {
-            throw new SystemException("无法解析指标值: " + value);
-        }
-    }
-
 }
@@ -0,0 +1,320 @@
+package cn.webank.dosconfig.service.attribution;
+
+import cn.webank.dosconfig.entity.attribution.dto.response.MetricTreeNodeDTO;
+import cn.webank.dosconfig.enums.OperationType;
+import cn.webank.dosconfig.exception.SystemException;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 编译后的归因树执行计划，不可变，可在多个任务间共享。
+ * 树配置只解析一次，节点按后序展开为扁平数组（子节点总在父节点之前，根节点在最后），
+ * 运算类型预先解析为枚举，子节点以 CSR 形式存放（{@code childOffsets[i]..childOffsets[i+1]} 为节点 i 的子节点下标），
+ * 并预先汇总去重后的指标 ID 与维度 ID，供取数、节点计算与维度归因各阶段直接使用。
+ * 节点可通过 params 开启「由子节点派生」：{@value #PARAM_DERIVE_FROM_CHILDREN} 作用于单个节点，
+ * 根节点上的 {@value #PARAM_DERIVE_TREE} 作用于整棵树（节点上显式配置 false 时除外）。
+ * 满足条件的节点指标值由子节点在本地计算，不再向指标服务取数。
+ */
+public final class AttributionTreePlan {
+
+    /**
+     * 节点参数：该节点的指标值（以及加减节点的维度切片）由子节点派生。
+     */
+    public static final String PARAM_DERIVE_FROM_CHILDREN = "deriveFromChildren";
+
+    /**
+     * 根节点参数：整棵树中满足条件的节点均由子节点派生。
+     */
+    public static final String PARAM_DERIVE_TREE = "deriveTree";
+
+    /**
+     * 节点参数：该节点的指标按维度值可加（如金额、笔数），维度切片被截断时才以合计值计算长尾残差。
+     * 去重计数、均值等不可加指标不应配置。
+     */
+    public static final String PARAM_ADDITIVE = "additive";
+
+    private final String treeId;
+    private final Integer version;
+    private final MetricTreeNodeDTO root;
+    private final MetricTreeNodeDTO[] nodes;
+    private final OperationType[] operations;
+    private final int[] childOffsets;
+    private final int[] childIndexes;
+    private final int[] metricSlots;
+    private final boolean[] derived;
+    private final Map<MetricTreeNodeDTO, Integer> indexByNode;
+    private final List<String> metricIds;
+    private final List<String> fetchedMetricIds;
+    private final List<String> dimensionIds;
+
+    private AttributionTreePlan(String treeId,
+                                Integer version,
+                                MetricTreeNodeDTO root,
+                                MetricTreeNodeDTO[] nodes,
+                                OperationType[] operations,
+                                int[] childOffsets,
+                                int[] childIndexes,
+                                int[] metricSlots,
+                                boolean[] derived,
+                                Map<MetricTreeNodeDTO, Integer> indexByNode,
+                                List<String> metricIds,
+                                List<String> fetchedMetricIds,
+                                List<String> dimensionIds) {
+        this.treeId = treeId;
+        this.version = version;
+        this.root = root;
+        this.nodes = nodes;
+        this.operations = operations;
+        this.childOffsets = childOffsets;
+        this.childIndexes = childIndexes;
+        this.metricSlots = metricSlots;
+        this.derived = derived;
+        this.indexByNode = indexByNode;
+        this.metricIds = metricIds;
+        this.fetchedMetricIds = fetchedMetricIds;
+        this.dimensionIds = dimensionIds;
+    }
+
+    /**
+     * 编译归因树配置。
+     */
+    public static AttributionTreePlan compile(String treeId, Integer version, MetricTreeNodeDTO root) {
+        if (root == null) {
+            throw new SystemException("归因树配置为空: " + treeId);
+        }
+        List<MetricTreeNodeDTO> postOrder = new ArrayList<>();
+        Map<MetricTreeNodeDTO, Integer> indexByNode = new IdentityHashMap<>();
+        // 迭代后序遍历，避免深层树递归
+        Deque<MetricTreeNodeDTO> stack = new ArrayDeque<>();
+        Deque<Boolean> expanded = new ArrayDeque<>();
+        stack.push(root);
+        expanded.push(Boolean.FALSE);
+        while (!stack.isEmpty()) {
+            MetricTreeNodeDTO node = stack.pop();
+            boolean childrenVisited = expanded.pop();
+            if (childrenVisited || node.children() == null || node.children().isEmpty()) {
+                indexByNode.put(node, postOrder.size());
+                postOrder.add(node);
+                continue;
+            }
+            stack.push(node);
+            expanded.push(Boolean.TRUE);
+            List<MetricTreeNodeDTO> children = node.children();
+            for (int i = children.size() - 1; i >= 0; i--) {
+                stack.push(children.get(i));
+                expanded.push(Boolean.FALSE);
+            }
+        }
+
+        int size = postOrder.size();
+        MetricTreeNodeDTO[] nodes = postOrder.toArray(new MetricTreeNodeDTO[0]);
+        OperationType[] operations = new OperationType[size];
+        int[] childOffsets = new int[size + 1];
+        int[] metricSlots = new int[size];
+        Map<String, Integer> metricSlotById = new LinkedHashMap<>();
+        Set<String> dimensionIds = new LinkedHashSet<>();
+        List<Integer> childIndexes = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            MetricTreeNodeDTO node = nodes[i];
+            operations[i] = resolveOperation(node);
+            childOffsets[i] = childIndexes.size();
+            if (node.children() != null) {
+                for (MetricTreeNodeDTO child : node.children()) {
+                    childIndexes.add(indexByNode.get(child));
+                }
+            }
+            String metricId = node.metricId();
+            metricSlots[i] = metricId == null || metricId.isBlank()
+                    ? -1
+                    : metricSlotById.computeIfAbsent(metricId, key -> metricSlotById.size());
+            if (node.dimensions() != null) {
+                dimensionIds.addAll(node.dimensions());
+            }
+        }
+        childOffsets[size] = childIndexes.size();
+
+        // 派生节点的指标无需远程取数；同一指标只要还被一个非派生节点使用就仍需取数
+        boolean deriveTree = isEnabled(root, PARAM_DERIVE_TREE);
+        boolean[] derived = new boolean[size];
+        Set<String> fetchedMetricIds = new LinkedHashSet<>();
+        for (int i = 0; i < size; i++) {
+            derived[i] = isDerivable(nodes[i], operations[i], deriveTree);
+            if (!derived[i] && metricSlots[i] >= 0) {
+                fetchedMetricIds.add(nodes[i].metricId());
+            }
+        }
+
+        return new AttributionTreePlan(
+                treeId,
+                version,
+                root,
+                nodes,
+                operations,
+                childOffsets,
+                childIndexes.stream().mapToInt(Integer::intValue).toArray(),
+                metricSlots,
+                derived,
+                indexByNode,
+                List.copyOf(metricSlotById.keySet()),
+                List.copyOf(fetchedMetricIds),
+                Collections.unmodifiableList(new ArrayList<>(dimensionIds))
+        );
+    }
+
+    /**
+     * 节点开启派生且子节点完整确定其取值时才可派生：加减乘至少一个子节点，除法恰好两个子节点，
+     * 比率类指标不可加，不参与加减派生；所有子节点须配置指标且不与父节点同一指标。
+     */
+    private static boolean isDerivable(MetricTreeNodeDTO node, OperationType operation, boolean deriveTree) {
+        Object flag = node.params() == null ? null : node.params().get(PARAM_DERIVE_FROM_CHILDREN);
+        boolean enabled = flag == null ? deriveTree : Boolean.parseBoolean(flag.toString());
+        List<MetricTreeNodeDTO> children = node.children();
+        if (!enabled || children == null || children.isEmpty() || node.metricId() == null || node.metricId().isBlank()) {
+            return false;
+        }
+        boolean shapeMatches = switch (operation) {
+            case ADD, SUB -> !Boolean.TRUE.equals(node.isRate());
+            case MUL -> true;
+            case DIV -> children.size() == 2;
+        };
+        if (!shapeMatches) {
+            return false;
+        }
+        for (MetricTreeNodeDTO child : children) {
+            if (child.metricId() == null || child.metricId().isBlank() || child.metricId().equals(node.metricId())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 节点指标是否显式声明为可加：须配置 {@value #PARAM_ADDITIVE}=true，比率类指标即使配置也不可加。
+     */
+    public static boolean isAdditive(MetricTreeNodeDTO node) {
+        return !Boolean.TRUE.equals(node.isRate()) && isEnabled(node, PARAM_ADDITIVE);
+    }
+
+    private static boolean isEnabled(MetricTreeNodeDTO node, String param) {
+        Object flag = node.params() == null ? null : node.params().get(param);
+        return flag != null && Boolean.parseBoolean(flag.toString());
+    }
+
+    private static OperationType resolveOperation(MetricTreeNodeDTO node) {
+        if (node.op() == null) {
+            return OperationType.ADD;
+        }
+        try {
+            return OperationType.valueOf(node.op().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new SystemException("不支持的节点运算类型: nodeId=" + node.nodeId() + ", op=" + node.op());
+        }
+    }
+
+    public String treeId() {
+        return treeId;
+    }
+
+    public Integer version() {
+        return version;
+    }
+
+    /**
+     * 原始树结构。
+     */
+    public MetricTreeNodeDTO root() {
+        return root;
+    }
+
+    /**
+     * 节点个数。
+     */
+    public int size() {
+        return nodes.length;
+    }
+
+    /**
+     * 根节点下标（后序展开时为最后一个）。
+     */
+    public int rootIndex() {
+        return nodes.length - 1;
+    }
+
+    public MetricTreeNodeDTO node(int index) {
+        return nodes[index];
+    }
+
+    public OperationType operation(int index) {
+        return operations[index];
+    }
+
+    /**
+     * 节点 i 的子节点在 {@link #childIndex(int)} 中的起始位置。
+     */
+    public int childStart(int index) {
+        return childOffsets[index];
+    }
+
+    /**
+     * 节点 i 的子节点在 {@link #childIndex(int)} 中的结束位置（不含）。
+     */
+    public int childEnd(int index) {
+        return childOffsets[index + 1];
+    }
+
+    public int childIndex(int position) {
+        return childIndexes[position];
+    }
+
+    /**
+     * 节点在执行计划中的下标（按对象身份匹配），不属于本计划时返回 -1。
+     */
+    public int indexOf(MetricTreeNodeDTO node) {
+        Integer index = indexByNode.get(node);
+        return index == null ? -1 : index;
+    }
+
+    /**
+     * 节点指标值是否由子节点派生。
+     */
+    public boolean derived(int index) {
+        return derived[index];
+    }
+
+    /**
+     * 节点指标在 {@link #metricIds()} 中的下标，节点未配置指标时为 -1。
+     */
+    public int metricSlot(int index) {
+        return metricSlots[index];
+    }
+
+    /**
+     * 树中涉及的指标 ID（去重，按后序首次出现顺序）。
+     */
+    public List<String> metricIds() {
+        return metricIds;
+    }
+
+    /**
+     * 需要远程取数的指标 ID（去除仅被派生节点使用的指标），未开启派生时与 {@link #metricIds()} 相同。
+     */
+    public List<String> fetchedMetricIds() {
+        return fetchedMetricIds;
+    }
+
+    /**
+     * 树中涉及的维度 ID（去重，按后序首次出现顺序）。
+     */
+    public List<String> dimensionIds() {
+        return dimensionIds;
+    }
+}
@@ -0,0 +1,60 @@
+package cn.webank.dosconfig.service.attribution;
+
+import cn.webank.dosconfig.entity.attribution.AttributionTree;
+import cn.webank.dosconfig.entity.attribution.dto.response.MetricTreeNodeDTO;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * 归因树执行计划缓存，按归因树 ID 缓存编译结果。
+ * 命中时校验版本号与树配置内容（先比哈希再比全文），树配置被修改后自动重新编译，
+ * 包括绕过本服务直接改库、未更新版本号或更新时间的修改；查询归因树时本就会读出树配置，校验不增加查询。
+ */
+public class AttributionTreePlanCache {
+
+    private static final Logger LOG = LoggerFactory.getLogger(AttributionTreePlanCache.class);
+
+    private final Cache<String, CachedPlan> cache;
+
+    public AttributionTreePlanCache(long maximumSize) {
+        this.cache = CacheBuilder.newBuilder()
+                .maximumSize(maximumSize)
+                .build();
+    }
+
+    /**
+     * 获取归因树的执行计划，缓存缺失或已过期时解析配置并重新编译。
+     *
+     * @param tree   归因树实体
+     * @param parser 树配置 JSON 解析函数
+     * @return 执行计划
+     */
+    public AttributionTreePlan get(AttributionTree tree, Function<String, MetricTreeNodeDTO> parser) {
+        CachedPlan cached = cache.getIfPresent(tree.getTreeId());
+        if (cached != null && cached.matches(tree)) {
+            return cached.plan();
+        }
+        AttributionTreePlan plan = AttributionTreePlan.compile(
+                tree.getTreeId(), tree.getVersion(), parser.apply(tree.getTreeConfig()));
+        cache.put(tree.getTreeId(), new CachedPlan(tree.getVersion(), tree.getTreeConfig(), plan));
+        LOG.info("归因树执行计划已编译: treeId={}, version={}, nodeCount={}, metricCount={}, dimensionCount={}",
+                tree.getTreeId(), tree.getVersion(), plan.size(), plan.metricIds().size(), plan.dimensionIds().size());
+        return plan;
+    }
+
+    private record CachedPlan(Integer version, String treeConfig, AttributionTreePlan plan) {
+
+        private boolean matches(AttributionTree tree) {
+            String config = tree.getTreeConfig();
+            return Objects.equals(version, tree.getVersion())
+                    && config != null
+                    && config.hashCode() == treeConfig.hashCode()
+                    && config.equals(treeConfig);
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package cn.webank.dosconfig.service.attribution;
+
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+
+/**
+ * 限制并发度的执行器包装：同一时刻最多 permits 个任务在底层线程池中执行，
+ * 超出时提交方阻塞等待，既能让单个任务充分并行，又不会独占共享线程池。
+ */
+public class BoundedExecutor implements Executor {
+
+    private final Executor delegate;
+    private final Semaphore semaphore;
+
+    public BoundedExecutor(Executor delegate, int permits) {
+        this.delegate = Objects.requireNonNull(delegate, "delegate must not be null");
+        this.semaphore = new Semaphore(Math.max(permits, 1));
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        Objects.requireNonNull(command, "command must not be null");
+        try {
+            semaphore.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RejectedExecutionException("等待执行许可时被中断", e);
+        }
+        try {
+            delegate.execute(() -> {
+                try {
+                    command.run();
+                } finally {
+                    semaphore.release();
+                }
+            });
+        } catch (RuntimeException e) {
+            semaphore.release();
+            throw e;
+        }
+    }
+}
@@ -6,7 +6,6 @@ import org.slf4j.LoggerFactory;
 
 import java.math.BigDecimal;
 import java.util.List;
-import java.util.Map;
 
 /**
  * 封装维度归因算法调用，基于 Adtributor 挑选贡献度最高的维度取值。
@@ -23,8 +22,9 @@ public class DimensionAttributionEngine {
     public DimensionAttributionEngine(BigDecimal epsilon,
                                       int dimensionMaxResult,
                                       BigDecimal dimensionEpThreshold,
-                                      BigDecimal dimensionEpTotalThreshold) {
-        this.adtributorCalculator = new AdtributorCalculator(epsilon);
+                                      BigDecimal dimensionEpTotalThreshold,
+                                      AdtributorCalculator.ComputationMode computationMode) {
+        this.adtributorCalculator = new AdtributorCalculator(epsilon, computationMode);
         this.dimensionMaxResult = dimensionMaxResult;
         this.dimensionEpThreshold = dimensionEpThreshold;
         this.dimensionEpTotalThreshold = dimensionEpTotalThreshold;
@@ -33,24 +33,35 @@ public class DimensionAttributionEngine {
     /**
      * 针对单个维度执行归因计算，返回贡献度明细列表。
      *
-     * @param dimensionId    维度 ID
-     * @param compareValues  对比期维度取值
-     * @param baselineValues 基准期维度取值
+     * @param dimensionId 维度 ID
+     * @param slice       基准期与对比期合并后的维度切片
      * @return 维度归因明细
      */
-    public List<DimensionAttributionItemDTO> analyze(String dimensionId,
-                                                     Map<String, BigDecimal> compareValues,
-                                                     Map<String, BigDecimal> baselineValues) {
+    public List<DimensionAttributionItemDTO> analyze(String dimensionId, DimensionSlice slice) {
         LOG.info("维度归因计算: dimensionId={}, compareSize={}, baselineSize={}",
-                dimensionId, compareValues.size(), baselineValues.size());
+                dimensionId, slice.compareCount(), slice.baselineCount());
         return adtributorCalculator.calculate(
                 dimensionId,
-                compareValues,
-                baselineValues,
+                slice,
                 dimensionEpThreshold,
                 dimensionEpTotalThreshold,
                 dimensionMaxResult
         );
     }
+
+    /**
+     * 归因结果是否已可下结论：条数达到上限，或累计 EP 达到累计阈值。
+     * 未下结论且切片被截断时，说明仅凭已取回的维度值解释不了整体变化，需要扩大取数范围。
+     */
+    public boolean isConclusive(List<DimensionAttributionItemDTO> items) {
+        if (items.size() >= dimensionMaxResult) {
+            return true;
+        }
+        BigDecimal accumulatedEp = BigDecimal.ZERO;
+        for (DimensionAttributionItemDTO item : items) {
+            accumulatedEp = accumulatedEp.add(item.contribution().abs());
+        }
+        return accumulatedEp.compareTo(dimensionEpTotalThreshold) >= 0;
+    }
 }
 
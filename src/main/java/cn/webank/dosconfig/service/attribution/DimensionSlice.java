@@ -0,0 +1,240 @@
+package cn.webank.dosconfig.service.attribution;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * 单个指标在单个维度下的取数结果，包含基准期与对比期按维度值聚合后的指标值。
+ * 两个周期合并存放：维度值编码为字典下标，基准期 / 对比期取值存放在平行的 double 数组中，
+ * 维度值到下标的查找使用开放寻址（线性探测）哈希表，不再为每个取值创建 Map 条目与 BigDecimal 对象。
+ * 下标按维度值首次出现的顺序分配；构建阶段非线程安全，构建完成后只读，可安全发布给其他线程。
+ * 取数被截断时，未取回的长尾汇总为「其他」残差：残差计入两个周期的合计值，但不作为候选维度值参与排序。
+ */
+public final class DimensionSlice {
+
+    private static final int DEFAULT_CAPACITY = 16;
+    private static final byte BASELINE_PRESENT = 1;
+    private static final byte COMPARE_PRESENT = 2;
+
+    private String[] values;
+    private double[] baseline;
+    private double[] compare;
+    private byte[] presence;
+    private int size;
+    private int baselineCount;
+    private int compareCount;
+    private boolean baselineTruncated;
+    private boolean compareTruncated;
+    private double residualBaseline;
+    private double residualCompare;
+
+    /**
+     * 开放寻址表，存放「字典下标 + 1」，0 表示空槽；容量为 2 的幂，装载因子不超过 0.5。
+     */
+    private int[] table;
+
+    public DimensionSlice() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public DimensionSlice(int expectedSize) {
+        int capacity = Math.max(expectedSize, DEFAULT_CAPACITY);
+        this.values = new String[capacity];
+        this.baseline = new double[capacity];
+        this.compare = new double[capacity];
+        this.presence = new byte[capacity];
+        this.table = new int[tableSizeFor(capacity)];
+    }
+
+    /**
+     * 由两个按维度值聚合的 Map 构建切片，先放入对比期取值，再放入基准期独有的取值。
+     */
+    public static DimensionSlice of(Map<String, BigDecimal> baselineValues, Map<String, BigDecimal> compareValues) {
+        DimensionSlice slice = new DimensionSlice(compareValues.size() + baselineValues.size());
+        compareValues.forEach((value, metric) -> slice.addCompare(value, metric.doubleValue()));
+        baselineValues.forEach((value, metric) -> slice.addBaseline(value, metric.doubleValue()));
+        return slice;
+    }
+
+    /**
+     * 累加基准期取值。
+     */
+    public void addBaseline(String value, double metric) {
+        int index = indexFor(value);
+        baseline[index] += metric;
+        if ((presence[index] & BASELINE_PRESENT) == 0) {
+            presence[index] |= BASELINE_PRESENT;
+            baselineCount++;
+        }
+    }
+
+    /**
+     * 累加对比期取值。
+     */
+    public void addCompare(String value, double metric) {
+        int index = indexFor(value);
+        compare[index] += metric;
+        if ((presence[index] & COMPARE_PRESENT) == 0) {
+            presence[index] |= COMPARE_PRESENT;
+            compareCount++;
+        }
+    }
+
+    /**
+     * 维度值个数（两个周期的并集）。
+     */
+    public int size() {
+        return size;
+    }
+
+    public int baselineCount() {
+        return baselineCount;
+    }
+
+    public int compareCount() {
+        return compareCount;
+    }
+
+    public String value(int index) {
+        return values[index];
+    }
+
+    /**
+     * 基准期取值，该维度值在基准期不存在时为 0。
+     */
+    public double baseline(int index) {
+        return baseline[index];
+    }
+
+    /**
+     * 对比期取值，该维度值在对比期不存在时为 0。
+     */
+    public double compare(int index) {
+        return compare[index];
+    }
+
+    public boolean hasBaseline(int index) {
+        return (presence[index] & BASELINE_PRESENT) != 0;
+    }
+
+    public boolean hasCompare(int index) {
+        return (presence[index] & COMPARE_PRESENT) != 0;
+    }
+
+    /**
+     * 取数结果是否被条数上限截断（任一周期被截断）。
+     */
+    public boolean truncated() {
+        return baselineTruncated || compareTruncated;
+    }
+
+    /**
+     * 基准期取值是否被条数上限截断。
+     */
+    public boolean baselineTruncated() {
+        return baselineTruncated;
+    }
+
+    /**
+     * 对比期取值是否被条数上限截断。
+     */
+    public boolean compareTruncated() {
+        return compareTruncated;
+    }
+
+    public void markBaselineTruncated() {
+        this.baselineTruncated = true;
+    }
+
+    public void markCompareTruncated() {
+        this.compareTruncated = true;
+    }
+
+    /**
+     * 设置未取回长尾的汇总值（「其他」残差）。
+     */
+    public void setResidual(double baseline, double compare) {
+        this.residualBaseline = baseline;
+        this.residualCompare = compare;
+    }
+
+    public double residualBaseline() {
+        return residualBaseline;
+    }
+
+    public double residualCompare() {
+        return residualCompare;
+    }
+
+    /**
+     * 维度值对应的字典下标，不存在时返回 -1。
+     */
+    public int indexOf(String value) {
+        int mask = table.length - 1;
+        for (int slot = hash(value) & mask; ; slot = (slot + 1) & mask) {
+            int entry = table[slot];
+            if (entry == 0) {
+                return -1;
+            }
+            if (values[entry - 1].equals(value)) {
+                return entry - 1;
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "DimensionSlice[size=" + size + ", baselineCount=" + baselineCount + ", compareCount=" + compareCount
+                + ", baselineTruncated=" + baselineTruncated + ", compareTruncated=" + compareTruncated + ", residualBaseline=" + residualBaseline + ", residualCompare=" + residualCompare + "]";
+    }
+
+    private int indexFor(String value) {
+        int mask = table.length - 1;
+        int slot = hash(value) & mask;
+        while (true) {
+            int entry = table[slot];
+            if (entry == 0) {
+                break;
+            }
+            if (values[entry - 1].equals(value)) {
+                return entry - 1;
+            }
+            slot = (slot + 1) & mask;
+        }
+        if (size == values.length) {
+            grow();
+            return indexFor(value);
+        }
+        int index = size++;
+        values[index] = value;
+        table[slot] = index + 1;
+        return index;
+    }
+
+    private void grow() {
+        int capacity = values.length << 1;
+        values = Arrays.copyOf(values, capacity);
+        baseline = Arrays.copyOf(baseline, capacity);
+        compare = Arrays.copyOf(compare, capacity);
+        presence = Arrays.copyOf(presence, capacity);
+        table = new int[tableSizeFor(capacity)];
+        int mask = table.length - 1;
+        for (int i = 0; i < size; i++) {
+            int slot = hash(values[i]) & mask;
+            while (table[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            table[slot] = i + 1;
+        }
+    }
+
+    private static int tableSizeFor(int capacity) {
+        return Integer.highestOneBit(capacity - 1) << 2;
+    }
+
+    private static int hash(String value) {
+        int h = value.hashCode();
+        return h ^ (h >>> 16);
+    }
+}
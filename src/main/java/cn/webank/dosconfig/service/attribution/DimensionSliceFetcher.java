@@ -0,0 +1,498 @@
+package cn.webank.dosconfig.service.attribution;
+
+import cn.webank.dosconfig.entity.FieldOrder;
+import cn.webank.dosconfig.entity.FilterCondition;
+import cn.webank.dosconfig.entity.FilterConditionNormalizer;
+import cn.webank.dosconfig.entity.rmb.Req_04302590_01;
+import cn.webank.dosconfig.enums.DateGranularity;
+import cn.webank.dosconfig.enums.EOperator;
+import cn.webank.dosconfig.exception.SystemException;
+import cn.webank.dosconfig.service.MetricRow;
+import cn.webank.dosconfig.service.MetricRowVisitor;
+import cn.webank.dosconfig.service.MetricService;
+import cn.webank.weup.base.util.JSONUtil;
+import com.google.common.collect.Lists;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.function.ObjDoubleConsumer;
+
+/**
+ * 维度取数组件，负责查询单个指标在单个维度下基准期、对比期的维度切片。
+ * 合并模式下以「时间维度 + 业务维度」分组，一次请求同时取回两个周期，再按周期拆分；
+ * 两个周期不相邻时额外追加时间过滤，避免把中间周期的数据也拉回来。
+ * 另外支持按维度跨节点预取：共享同一维度的多个指标合并为多指标请求，结果暂存在本组件中，
+ * 之后的 {@link #fetch} 优先命中预取结果。组件按任务创建，不跨任务复用。
+ * 单次取数的条数上限由调用方给出，调用方可先用较小的上限取数，结果不足以得出结论时再逐步放大。
+ */
+public class DimensionSliceFetcher {
+
+    private static final Logger LOG = LoggerFactory.getLogger(DimensionSliceFetcher.class);
+    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+    private static final String UNKNOWN_DIMENSION_VALUE = "UNKNOWN";
+
+    private final MetricService metricService;
+    private final boolean pairedFetchEnabled;
+    private final Map<String, DimensionSlice> prefetchedSlices = new ConcurrentHashMap<>();
+
+    public DimensionSliceFetcher(MetricService metricService, boolean pairedFetchEnabled) {
+        this.metricService = metricService;
+        this.pairedFetchEnabled = pairedFetchEnabled;
+    }
+
+    /**
+     * 按维度跨节点预取维度切片：同一维度下的指标每 {@link MetricQuerySupport#MAX_METRICS_PER_REQUEST} 个合并为一次请求。
+     * 多指标请求无法按单个指标排序截断，因此不排序、按单次上限取全量；若返回条数触顶说明结果被截断，
+     * 该组放弃预取，由 {@link #fetch} 回退到逐节点查询。各组请求相互独立，在 executor 上并行执行。
+     *
+     * @param metricIdsByDimension 维度 ID -> 需要该维度切片的指标 ID
+     * @param executor             取数执行器
+     * @return 实际发出的请求数
+     */
+    public int prefetch(Map<String, ? extends Collection<String>> metricIdsByDimension,
+                        LocalDate baselineDate,
+                        LocalDate compareDate,
+                        DateGranularity granularity,
+                        FilterCondition queryFilter,
+                        Executor executor) {
+        int requestCount = 0;
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (Map.Entry<String, ? extends Collection<String>> entry : metricIdsByDimension.entrySet()) {
+            String dimensionId = entry.getKey();
+            List<String> metricIds = new ArrayList<>(new LinkedHashSet<>(entry.getValue()));
+            for (List<String> chunk : Lists.partition(metricIds, MetricQuerySupport.MAX_METRICS_PER_REQUEST)) {
+                requestCount += pairedFetchEnabled ? 1 : 2;
+                futures.add(CompletableFuture.runAsync(() -> {
+                    Map<String, DimensionSlice> slices = fetchMultiMetric(
+                            chunk, dimensionId, baselineDate, compareDate, granularity, queryFilter);
+                    if (slices == null) {
+                        LOG.warn("维度预取结果被截断，回退逐节点取数: dimensionId={}, metrics={}", dimensionId, chunk);
+                        return;
+                    }
+                    slices.forEach((metricId, slice) -> prefetchedSlices.put(sliceKey(metricId, dimensionId), slice));
+                }, executor));
+            }
+        }
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).join();
+        LOG.info("维度预取完成: dimensionCount={}, requestCount={}, sliceCount={}",
+                metricIdsByDimension.size(), requestCount, prefetchedSlices.size());
+        return requestCount;
+    }
+
+    /**
+     * 指标在指定维度下的预取切片（完整数据），未预取或预取被截断时返回 null。
+     */
+    public DimensionSlice prefetched(String metricId, String dimensionId) {
+        return prefetchedSlices.get(sliceKey(metricId, dimensionId));
+    }
+
+    /**
+     * 绕过预取结果直接向指标服务查询切片，不折叠残差，供派生结果校验使用。
+     */
+    public DimensionSlice fetchRemote(String metricId,
+                                      String dimensionId,
+                                      LocalDate baselineDate,
+                                      LocalDate compareDate,
+                                      DateGranularity granularity,
+                                      FilterCondition queryFilter,
+                                      int limit) {
+        if (pairedFetchEnabled) {
+            return fetchPaired(metricId, dimensionId, baselineDate, compareDate, granularity, queryFilter, limit);
+        }
+        DimensionSlice slice = new DimensionSlice(limit);
+        int baselineRowCount = queryDimensionValues(metricId, dimensionId, baselineDate, baselineDate,
+                granularity, queryFilter, limit, slice::addBaseline);
+        int compareRowCount = queryDimensionValues(metricId, dimensionId, compareDate, compareDate,
+                granularity, queryFilter, limit, slice::addCompare);
+        if (baselineRowCount >= limit) {
+            slice.markBaselineTruncated();
+        }
+        if (compareRowCount >= limit) {
+            slice.markCompareTruncated();
+        }
+        return slice;
+    }
+
+    /**
+     * 查询指标在指定维度下基准期、对比期的切片，优先使用预取结果（预取结果均为完整数据）。
+     * 按指标值降序最多取 limit 个维度值，返回条数触顶时切片标记为截断；此时若给出了指标合计值，
+     * 未取回的长尾按「合计值 - 已取回取值」汇总为「其他」残差，使 EP 与 Surprise 的分母仍以完整合计值计算，
+     * 只在一个周期中出现的维度值仍作为候选，缺失一侧确属缺失时按 0 计，无法确定时按维度值回查补齐。
+     *
+     * @param limit  单个周期最多取回的维度值个数
+     * @param totals 指标在两个周期的合计值，为空时（指标未声明可加，如比率、去重计数、均值）不计算残差
+     */
+    public DimensionSlice fetch(String metricId,
+                                String dimensionId,
+                                LocalDate baselineDate,
+                                LocalDate compareDate,
+                                DateGranularity granularity,
+                                FilterCondition queryFilter,
+                                int limit,
+                                NodeMetricComputationEngine.MetricValue totals) {
+        DimensionSlice prefetched = prefetchedSlices.get(sliceKey(metricId, dimensionId));
+        if (prefetched != null) {
+            LOG.info("维度切片命中预取结果: metricId={}, dimensionId={}", metricId, dimensionId);
+            return prefetched;
+        }
+        DimensionSlice slice = fetchRemote(metricId, dimensionId, baselineDate, compareDate, granularity, queryFilter, limit);
+        if (!slice.truncated() || totals == null) {
+            return slice;
+        }
+        return foldTail(slice, totals, metricId, dimensionId, baselineDate, compareDate, granularity, queryFilter);
+    }
+
+    /**
+     * 单次请求取回基准期与对比期的维度切片。
+     * 两个周期合并按指标值降序截断时，各周期取回的均是该周期的头部取值，但条数可能远少于 limit
+     * （另一个周期占满了大部分行）；条数不足 limit 的周期单独按 limit 重取，使每个周期都是真正的 top-N，
+     * 截断标记按周期分别记录。
+     */
+    private DimensionSlice fetchPaired(String metricId,
+                                       String dimensionId,
+                                       LocalDate baselineDate,
+                                       LocalDate compareDate,
+                                       DateGranularity granularity,
+                                       FilterCondition queryFilter,
+                                       int limit) {
+        int rowLimit = Math.min(limit * 2, MetricQuerySupport.MAX_ROWS_PER_REQUEST);
+        Req_04302590_01 req = buildPairedRequest(
+                List.of(metricId),
+                dimensionId,
+                baselineDate,
+                compareDate,
+                granularity,
+                List.of(new FieldOrder(metricId, "desc")),
+                rowLimit,
+                queryFilter
+        );
+        PeriodSplitter splitter = new PeriodSplitter(List.of(metricId), dimensionId, baselineDate, compareDate, granularity);
+        int rowCount = metricService.queryRows(req, splitter);
+        DimensionSlice slice = splitter.slices().get(metricId);
+        LOG.info("维度合并取数: metricId={}, dimensionId={}, baseline={}, compare={}, rows={}, baselineCount={}, compareCount={}",
+                metricId, dimensionId, baselineDate, compareDate, rowCount,
+                slice.baselineCount(), slice.compareCount());
+        if (rowCount < rowLimit) {
+            return slice;
+        }
+        return completeTruncatedPeriods(slice, metricId, dimensionId, baselineDate, compareDate, granularity, queryFilter, limit);
+    }
+
+    /**
+     * 合并取数被截断后逐周期补齐：条数达到 limit 的周期沿用合并取数的结果并标记截断，
+     * 不足 limit 的周期单独查询 top-limit，按重取的条数判断是否截断。
+     */
+    private DimensionSlice completeTruncatedPeriods(DimensionSlice pairedSlice,
+                                                    String metricId,
+                                                    String dimensionId,
+                                                    LocalDate baselineDate,
+                                                    LocalDate compareDate,
+                                                    DateGranularity granularity,
+                                                    FilterCondition queryFilter,
+                                                    int limit) {
+        DimensionSlice slice = new DimensionSlice(pairedSlice.size());
+        if (pairedSlice.baselineCount() >= limit) {
+            for (int i = 0; i < pairedSlice.size(); i++) {
+                if (pairedSlice.hasBaseline(i)) {
+                    slice.addBaseline(pairedSlice.value(i), pairedSlice.baseline(i));
+                }
+            }
+            slice.markBaselineTruncated();
+        } else if (queryDimensionValues(metricId, dimensionId, baselineDate, baselineDate,
+                granularity, queryFilter, limit, slice::addBaseline) >= limit) {
+            slice.markBaselineTruncated();
+        }
+        if (pairedSlice.compareCount() >= limit) {
+            for (int i = 0; i < pairedSlice.size(); i++) {
+                if (pairedSlice.hasCompare(i)) {
+                    slice.addCompare(pairedSlice.value(i), pairedSlice.compare(i));
+                }
+            }
+            slice.markCompareTruncated();
+        } else if (queryDimensionValues(metricId, dimensionId, compareDate, compareDate,
+                granularity, queryFilter, limit, slice::addCompare) >= limit) {
+            slice.markCompareTruncated();
+        }
+        LOG.info("维度合并取数被截断，逐周期补齐: metricId={}, dimensionId={}, limit={}, baselineCount={}, compareCount={}, baselineTruncated={}, compareTruncated={}",
+                metricId, dimensionId, limit, slice.baselineCount(), slice.compareCount(),
+                slice.baselineTruncated(), slice.compareTruncated());
+        return slice;
+    }
+
+    /**
+     * 多指标维度取数，结果被截断时返回 null。
+     */
+    private Map<String, DimensionSlice> fetchMultiMetric(List<String> metricIds,
+                                                         String dimensionId,
+                                                         LocalDate baselineDate,
+                                                         LocalDate compareDate,
+                                                         DateGranularity granularity,
+                                                         FilterCondition queryFilter) {
+        int limit = MetricQuerySupport.MAX_ROWS_PER_REQUEST;
+        PeriodSplitter splitter = new PeriodSplitter(metricIds, dimensionId, baselineDate, compareDate, granularity);
+        if (pairedFetchEnabled) {
+            Req_04302590_01 req = buildPairedRequest(metricIds, dimensionId, baselineDate, compareDate,
+                    granularity, Collections.emptyList(), limit, queryFilter);
+            return metricService.queryRows(req, splitter) >= limit ? null : splitter.slices();
+        }
+        List<String> dimensions = List.of(MetricQuerySupport.TIME_DIMENSION_FIELD, dimensionId);
+        int baselineRowCount = metricService.queryRows(MetricQuerySupport.buildRequest(metricIds, dimensions,
+                baselineDate, baselineDate, granularity, Collections.emptyList(), limit, queryFilter), splitter);
+        int compareRowCount = metricService.queryRows(MetricQuerySupport.buildRequest(metricIds, dimensions,
+                compareDate, compareDate, granularity, Collections.emptyList(), limit, queryFilter), splitter);
+        if (baselineRowCount >= limit || compareRowCount >= limit) {
+            return null;
+        }
+        return splitter.slices();
+    }
+
+    private Req_04302590_01 buildPairedRequest(List<String> metricIds,
+                                               String dimensionId,
+                                               LocalDate baselineDate,
+                                               LocalDate compareDate,
+                                               DateGranularity granularity,
+                                               List<FieldOrder> orders,
+                                               int limit,
+                                               FilterCondition queryFilter) {
+        LocalDate rangeStart = baselineDate.isBefore(compareDate) ? baselineDate : compareDate;
+        LocalDate rangeEnd = baselineDate.isBefore(compareDate) ? compareDate : baselineDate;
+        FilterCondition filter = queryFilter;
+        if (MetricQuerySupport.countPeriods(rangeStart, rangeEnd, granularity) > 2) {
+            filter = withPeriodFilter(queryFilter, baselineDate, compareDate, granularity);
+        }
+        Req_04302590_01 req = MetricQuerySupport.buildRequest(
+                metricIds,
+                List.of(MetricQuerySupport.TIME_DIMENSION_FIELD, dimensionId),
+                rangeStart,
+                rangeEnd,
+                granularity,
+                orders,
+                limit,
+                filter
+        );
+        LOG.info("METRICS QUERY REQ is: {}", JSONUtil.toDenseJsonStr(req));
+        return req;
+    }
+
+    private int queryDimensionValues(String metricId,
+                                     String dimensionId,
+                                     LocalDate start,
+                                     LocalDate end,
+                                     DateGranularity granularity,
+                                     FilterCondition queryFilter,
+                                     int limit,
+                                     ObjDoubleConsumer<String> accumulator) {
+        Req_04302590_01 req = MetricQuerySupport.buildRequest(
+                List.of(metricId),
+                List.of(dimensionId),
+                start,
+                end,
+                granularity,
+                List.of(new FieldOrder(metricId, "desc")),
+                limit,
+                queryFilter
+        );
+        LOG.info("METRICS QUERY REQ is: {}", JSONUtil.toDenseJsonStr(req));
+        int rowCount = metricService.queryRows(req, row -> accumulator.accept(
+                row.getString(dimensionId, UNKNOWN_DIMENSION_VALUE), row.getDouble(metricId)));
+        LOG.info("维度取数: metricId={}, dimensionId={}, start_date={}, end_date={}, rows={}", metricId, dimensionId, start, end, rowCount);
+        return rowCount;
+    }
+
+    /**
+     * 截断切片的长尾汇总：取回的维度值都保留为候选，其余部分按「合计值 - 已保留取值」汇总为残差。
+     * 只在一个周期中出现的维度值，若另一周期未被截断则确属缺失，按 0 计；若另一周期被截断，
+     * 该值可能只是排在截断位置之后，按维度值回查该周期补齐，回查不到的才按 0 计。
+     * 维度值为空（{@value #UNKNOWN_DIMENSION_VALUE}）时无法回查，缺失一侧待回查的话直接并入残差。
+     * 残差可能为负（如有正有负的指标），同样计入合计值，保证合计值与指标服务一致。
+     */
+    private DimensionSlice foldTail(DimensionSlice slice,
+                                    NodeMetricComputationEngine.MetricValue totals,
+                                    String metricId,
+                                    String dimensionId,
+                                    LocalDate baselineDate,
+                                    LocalDate compareDate,
+                                    DateGranularity granularity,
+                                    FilterCondition queryFilter) {
+        DimensionSlice folded = new DimensionSlice(slice.size());
+        List<String> baselineLookups = new ArrayList<>();
+        List<String> compareLookups = new ArrayList<>();
+        for (int i = 0; i < slice.size(); i++) {
+            String value = slice.value(i);
+            boolean lookupBaseline = !slice.hasBaseline(i) && slice.baselineTruncated();
+            boolean lookupCompare = !slice.hasCompare(i) && slice.compareTruncated();
+            if ((lookupBaseline || lookupCompare) && UNKNOWN_DIMENSION_VALUE.equals(value)) {
+                continue;
+            }
+            if (slice.hasCompare(i)) {
+                folded.addCompare(value, slice.compare(i));
+            } else if (lookupCompare) {
+                compareLookups.add(value);
+            } else {
+                folded.addCompare(value, 0D);
+            }
+            if (slice.hasBaseline(i)) {
+                folded.addBaseline(value, slice.baseline(i));
+            } else if (lookupBaseline) {
+                baselineLookups.add(value);
+            } else {
+                folded.addBaseline(value, 0D);
+            }
+        }
+        lookupMissingValues(baselineLookups, metricId, dimensionId, baselineDate, granularity, queryFilter, folded::addBaseline);
+        lookupMissingValues(compareLookups, metricId, dimensionId, compareDate, granularity, queryFilter, folded::addCompare);
+        if (slice.baselineTruncated()) {
+            folded.markBaselineTruncated();
+        }
+        if (slice.compareTruncated()) {
+            folded.markCompareTruncated();
+        }
+        double keptBaseline = 0D;
+        double keptCompare = 0D;
+        for (int i = 0; i < folded.size(); i++) {
+            keptBaseline += folded.baseline(i);
+            keptCompare += folded.compare(i);
+        }
+        folded.setResidual(totals.baselineValue().doubleValue() - keptBaseline,
+                totals.compareValue().doubleValue() - keptCompare);
+        LOG.info("维度切片被截断，长尾汇总为残差: size={}, keptSize={}, baselineLookups={}, compareLookups={}, residualBaseline={}, residualCompare={}",
+                slice.size(), folded.size(), baselineLookups.size(), compareLookups.size(),
+                folded.residualBaseline(), folded.residualCompare());
+        return folded;
+    }
+
+    /**
+     * 按维度值回查单个周期的取值，回查不到的维度值在该周期确属缺失，按 0 计。
+     */
+    private void lookupMissingValues(List<String> values,
+                                     String metricId,
+                                     String dimensionId,
+                                     LocalDate date,
+                                     DateGranularity granularity,
+                                     FilterCondition queryFilter,
+                                     ObjDoubleConsumer<String> accumulator) {
+        if (values.isEmpty()) {
+            return;
+        }
+        FilterCondition valueFilter = FilterCondition.operation(dimensionId, EOperator.IN, values);
+        FilterCondition filter = queryFilter == null || queryFilter.isEmpty()
+                ? valueFilter
+                : FilterConditionNormalizer.normalize(FilterCondition.and(List.of(queryFilter, valueFilter)));
+        Set<String> found = new HashSet<>(values.size() * 2);
+        queryDimensionValues(metricId, dimensionId, date, date, granularity, filter, values.size(), (value, metric) -> {
+            found.add(value);
+            accumulator.accept(value, metric);
+        });
+        for (String value : values) {
+            if (!found.contains(value)) {
+                accumulator.accept(value, 0D);
+            }
+        }
+    }
+
+    private String sliceKey(String metricId, String dimensionId) {
+        return metricId + "|" + dimensionId;
+    }
+
+    /**
+     * 在原过滤条件上追加「仅基准期或对比期」的时间过滤。
+     */
+    private FilterCondition withPeriodFilter(FilterCondition queryFilter,
+                                             LocalDate baselineDate,
+                                             LocalDate compareDate,
+                                             DateGranularity granularity) {
+        FilterCondition periodFilter = FilterCondition.or(List.of(
+                periodRange(baselineDate, granularity),
+                periodRange(compareDate, granularity)
+        ));
+        if (queryFilter == null || queryFilter.isEmpty()) {
+            return FilterConditionNormalizer.normalize(periodFilter);
+        }
+        return FilterConditionNormalizer.normalize(FilterCondition.and(List.of(queryFilter, periodFilter)));
+    }
+
+    private FilterCondition periodRange(LocalDate date, DateGranularity granularity) {
+        String start = MetricQuerySupport.normalizeRangeStart(date, granularity).format(DATE_FORMATTER);
+        String end = MetricQuerySupport.normalizeRangeEnd(date, granularity).format(DATE_FORMATTER);
+        return FilterCondition.and(List.of(
+                FilterCondition.operation(MetricQuerySupport.TIME_DIMENSION_FIELD, EOperator.GTE, start),
+                FilterCondition.operation(MetricQuerySupport.TIME_DIMENSION_FIELD, EOperator.LTE, end)
+        ));
+    }
+
+    /**
+     * 按时间维度把「时间 + 维度」分组的结果行拆分为各指标的基准期、对比期切片，边读边累加。
+     * 行中指标值为空表示该维度值下没有该指标数据，直接跳过。
+     */
+    private static final class PeriodSplitter implements MetricRowVisitor {
+
+        private final List<String> metricIds;
+        private final String dimensionId;
+        private final DateGranularity granularity;
+        private final LocalDate baselinePeriod;
+        private final LocalDate comparePeriod;
+        private final Map<String, DimensionSlice> slices;
+
+        private PeriodSplitter(List<String> metricIds,
+                               String dimensionId,
+                               LocalDate baselineDate,
+                               LocalDate compareDate,
+                               DateGranularity granularity) {
+            this.metricIds = metricIds;
+            this.dimensionId = dimensionId;
+            this.granularity = granularity;
+            this.baselinePeriod = MetricQuerySupport.normalizeRangeStart(baselineDate, granularity);
+            this.comparePeriod = MetricQuerySupport.normalizeRangeStart(compareDate, granularity);
+            this.slices = new HashMap<>(metricIds.size());
+            for (String metricId : metricIds) {
+                slices.put(metricId, new DimensionSlice());
+            }
+        }
+
+        @Override
+        public void visit(MetricRow row) {
+            Object rawPeriod = row.get(MetricQuerySupport.TIME_DIMENSION_FIELD);
+            LocalDate period = MetricQuerySupport.resolvePeriodStart(rawPeriod, granularity);
+            if (period == null) {
+                throw new SystemException("无法识别的时间维度取值: " + rawPeriod);
+            }
+            boolean isBaseline = period.equals(baselinePeriod);
+            boolean isCompare = period.equals(comparePeriod);
+            if (!isBaseline && !isCompare) {
+                return;
+            }
+            String dimValue = row.getString(dimensionId, UNKNOWN_DIMENSION_VALUE);
+            for (String metricId : metricIds) {
+                if (row.isNull(metricId)) {
+                    continue;
+                }
+                double value = row.getDouble(metricId);
+                DimensionSlice slice = slices.get(metricId);
+                if (isBaseline) {
+                    slice.addBaseline(dimValue, value);
+                }
+                if (isCompare) {
+                    slice.addCompare(dimValue, value);
+                }
+            }
+        }
+
+        private Map<String, DimensionSlice> slices() {
+            return slices;
+        }
+    }
+}
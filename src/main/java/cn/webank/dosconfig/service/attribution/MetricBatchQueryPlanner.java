@@ -0,0 +1,191 @@
+package cn.webank.dosconfig.service.attribution;
+
+import cn.webank.dosconfig.entity.FieldOrder;
+import cn.webank.dosconfig.entity.FilterCondition;
+import cn.webank.dosconfig.entity.rmb.Req_04302590_01;
+import cn.webank.dosconfig.enums.DateGranularity;
+import cn.webank.dosconfig.exception.SystemException;
+import cn.webank.dosconfig.service.MetricRow;
+import cn.webank.dosconfig.service.MetricRowVisitor;
+import cn.webank.dosconfig.service.MetricService;
+import cn.webank.weup.base.util.JSONUtil;
+import com.google.common.collect.Lists;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 指标值批量取数规划器。
+ * 将一棵归因树涉及的全部指标按 {@link MetricQuerySupport#MAX_METRICS_PER_REQUEST} 分组，
+ * 每组只发一次请求：以时间维度分组、时间范围同时覆盖基准期与对比期，再按周期把结果拆回各指标的
+ * {@link NodeMetricComputationEngine.MetricValue}。
+ * 当两个日期相距过远（覆盖的周期数超过单次返回上限）时，退化为基准期、对比期各发一次多指标请求。
+ * 另提供 {@link #fetchSeries} 一次取回一段连续周期的指标矩阵，供多周期连续归因使用。
+ */
+public class MetricBatchQueryPlanner {
+
+    private static final Logger LOG = LoggerFactory.getLogger(MetricBatchQueryPlanner.class);
+
+    private final MetricService metricService;
+    private final int rowLimit;
+
+    public MetricBatchQueryPlanner(MetricService metricService, int rowLimit) {
+        this.metricService = metricService;
+        this.rowLimit = Math.min(Math.max(rowLimit, 1), MetricQuerySupport.MAX_ROWS_PER_REQUEST);
+    }
+
+    /**
+     * 批量查询指标在基准期、对比期的取值。
+     *
+     * @param metricIds    指标 ID 集合
+     * @param baselineDate 基准日期
+     * @param compareDate  对比日期
+     * @param granularity  时间粒度
+     * @param queryFilter  过滤条件
+     * @return 指标 ID -> 基准/对比值，未返回数据的指标取 0
+     */
+    public Map<String, NodeMetricComputationEngine.MetricValue> fetch(Collection<String> metricIds,
+                                                                      LocalDate baselineDate,
+                                                                      LocalDate compareDate,
+                                                                      DateGranularity granularity,
+                                                                      FilterCondition queryFilter) {
+        List<String> distinctMetricIds = new ArrayList<>(new LinkedHashSet<>(metricIds));
+        Map<String, BigDecimal> baselineValues = new HashMap<>(distinctMetricIds.size());
+        Map<String, BigDecimal> compareValues = new HashMap<>(distinctMetricIds.size());
+
+        LocalDate baselinePeriod = MetricQuerySupport.normalizeRangeStart(baselineDate, granularity);
+        LocalDate comparePeriod = MetricQuerySupport.normalizeRangeStart(compareDate, granularity);
+        LocalDate rangeStart = baselineDate.isBefore(compareDate) ? baselineDate : compareDate;
+        LocalDate rangeEnd = baselineDate.isBefore(compareDate) ? compareDate : baselineDate;
+        boolean singleRange = MetricQuerySupport.countPeriods(rangeStart, rangeEnd, granularity) <= rowLimit;
+
+        int requestCount = 0;
+        for (List<String> chunk : Lists.partition(distinctMetricIds, MetricQuerySupport.MAX_METRICS_PER_REQUEST)) {
+            if (singleRange) {
+                query(chunk, rangeStart, rangeEnd, granularity, queryFilter, row -> {
+                    Object rawPeriod = row.get(MetricQuerySupport.TIME_DIMENSION_FIELD);
+                    LocalDate period = MetricQuerySupport.resolvePeriodStart(rawPeriod, granularity);
+                    if (period == null) {
+                        throw new SystemException("无法识别的时间维度取值: " + rawPeriod);
+                    }
+                    if (period.equals(baselinePeriod)) {
+                        accumulate(row, chunk, baselineValues);
+                    }
+                    if (period.equals(comparePeriod)) {
+                        accumulate(row, chunk, compareValues);
+                    }
+                });
+                requestCount++;
+            } else {
+                query(chunk, baselineDate, baselineDate, granularity, queryFilter,
+                        row -> accumulate(row, chunk, baselineValues));
+                query(chunk, compareDate, compareDate, granularity, queryFilter,
+                        row -> accumulate(row, chunk, compareValues));
+                requestCount += 2;
+            }
+        }
+
+        Map<String, NodeMetricComputationEngine.MetricValue> metricValues = new HashMap<>(distinctMetricIds.size());
+        for (String metricId : distinctMetricIds) {
+            metricValues.put(metricId, new NodeMetricComputationEngine.MetricValue(
+                    baselineValues.getOrDefault(metricId, BigDecimal.ZERO),
+                    compareValues.getOrDefault(metricId, BigDecimal.ZERO)));
+        }
+        LOG.info("批量指标取数完成: baseline={}, compare={}, metricCount={}, requestCount={}, singleRange={}",
+                baselineDate, compareDate, distinctMetricIds.size(), requestCount, singleRange);
+        return metricValues;
+    }
+
+    /**
+     * 批量查询指标在 [start, end] 内每个周期的取值，返回指标 × 周期矩阵。
+     * 每组指标按时间维度分组发起区间请求；周期数超过单次返回上限时按上限切分为多个连续区间。
+     *
+     * @param metricIds   指标 ID 集合
+     * @param start       起始日期（对齐到所在周期起点）
+     * @param end         结束日期（对齐到所在周期起点）
+     * @param granularity 时间粒度
+     * @param queryFilter 过滤条件
+     * @return 指标取值矩阵，未返回数据的周期取 0
+     */
+    public MetricSeries fetchSeries(Collection<String> metricIds,
+                                    LocalDate start,
+                                    LocalDate end,
+                                    DateGranularity granularity,
+                                    FilterCondition queryFilter) {
+        List<String> distinctMetricIds = new ArrayList<>(new LinkedHashSet<>(metricIds));
+        List<LocalDate> periods = MetricQuerySupport.listPeriods(start, end, granularity);
+        Map<LocalDate, Integer> periodIndex = new HashMap<>(periods.size() * 2);
+        for (int i = 0; i < periods.size(); i++) {
+            periodIndex.put(periods.get(i), i);
+        }
+        Map<String, double[]> values = new HashMap<>(distinctMetricIds.size() * 2);
+        for (String metricId : distinctMetricIds) {
+            values.put(metricId, new double[periods.size()]);
+        }
+
+        int requestCount = 0;
+        for (List<String> chunk : Lists.partition(distinctMetricIds, MetricQuerySupport.MAX_METRICS_PER_REQUEST)) {
+            double[][] chunkValues = new double[chunk.size()][];
+            for (int i = 0; i < chunk.size(); i++) {
+                chunkValues[i] = values.get(chunk.get(i));
+            }
+            for (List<LocalDate> window : Lists.partition(periods, rowLimit)) {
+                LocalDate windowStart = window.get(0);
+                LocalDate windowEnd = window.get(window.size() - 1);
+                query(chunk, windowStart, windowEnd, granularity, queryFilter, row -> {
+                    Object rawPeriod = row.get(MetricQuerySupport.TIME_DIMENSION_FIELD);
+                    LocalDate period = MetricQuerySupport.resolvePeriodStart(rawPeriod, granularity);
+                    if (period == null) {
+                        throw new SystemException("无法识别的时间维度取值: " + rawPeriod);
+                    }
+                    Integer index = periodIndex.get(period);
+                    if (index == null) {
+                        return;
+                    }
+                    for (int i = 0; i < chunk.size(); i++) {
+                        chunkValues[i][index] += row.getDouble(chunk.get(i));
+                    }
+                });
+                requestCount++;
+            }
+        }
+        LOG.info("批量指标序列取数完成: start={}, end={}, granularity={}, periodCount={}, metricCount={}, requestCount={}",
+                start, end, granularity, periods.size(), distinctMetricIds.size(), requestCount);
+        return new MetricSeries(periods, values);
+    }
+
+    private void query(List<String> metricIds,
+                       LocalDate start,
+                       LocalDate end,
+                       DateGranularity granularity,
+                       FilterCondition queryFilter,
+                       MetricRowVisitor visitor) {
+        Req_04302590_01 req = MetricQuerySupport.buildRequest(
+                metricIds,
+                Collections.emptyList(),
+                start,
+                end,
+                granularity,
+                List.of(new FieldOrder(MetricQuerySupport.TIME_DIMENSION_FIELD, "asc")),
+                rowLimit,
+                queryFilter
+        );
+        LOG.info("METRICS BATCH QUERY REQ is: {}", JSONUtil.toDenseJsonStr(req));
+        metricService.queryRows(req, visitor);
+    }
+
+    private void accumulate(MetricRow row, List<String> metricIds, Map<String, BigDecimal> target) {
+        for (String metricId : metricIds) {
+            target.merge(metricId, row.getDecimal(metricId), BigDecimal::add);
+        }
+    }
+}
@@ -0,0 +1,199 @@
+package cn.webank.dosconfig.service.attribution;
+
+import cn.webank.dosconfig.entity.FieldOrder;
+import cn.webank.dosconfig.entity.FilterCondition;
+import cn.webank.dosconfig.entity.TimeDimension;
+import cn.webank.dosconfig.entity.rmb.Req_04302590_01;
+import cn.webank.dosconfig.enums.DateGranularity;
+import cn.webank.dosconfig.exception.SystemException;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.Year;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.IsoFields;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 指标查询请求的公共构造逻辑：时间维度归一化、请求组装、结果取值解析。
+ * 供归因服务与批量取数组件共用，保证同一语义的请求只有一种构造方式。
+ */
+public final class MetricQuerySupport {
+
+    /**
+     * 指标服务单次请求允许的最大指标个数，与 {@link Req_04302590_01#getMetrics()} 的校验保持一致。
+     */
+    public static final int MAX_METRICS_PER_REQUEST = 50;
+
+    /**
+     * 指标服务单次请求允许的最大返回条数，与 {@link Req_04302590_01#getLimit()} 的校验保持一致。
+     */
+    public static final int MAX_ROWS_PER_REQUEST = 10000;
+
+    /**
+     * 时间维度字段 ID。
+     */
+    public static final String TIME_DIMENSION_FIELD = "dim_calendar_a.fmt_date";
+
+    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+
+    private MetricQuerySupport() {
+        // 工具类，禁止实例化
+    }
+
+    /**
+     * 组装指标查询请求，过滤条件原样透传。
+     */
+    public static Req_04302590_01 buildRequest(List<String> metricIds,
+                                               List<String> dimensions,
+                                               LocalDate start,
+                                               LocalDate end,
+                                               DateGranularity granularity,
+                                               List<FieldOrder> orders,
+                                               int limit,
+                                               FilterCondition queryFilter) {
+        Req_04302590_01 req = new Req_04302590_01();
+        req.setMetrics(metricIds);
+        req.setDimensions(dimensions);
+        req.setTimeDimensions(List.of(buildTimeDimension(granularity, start, end)));
+        req.setSort(orders);
+        req.setLimit(limit);
+        req.setFilters(queryFilter);
+        return req;
+    }
+
+    /**
+     * 按时间粒度构造闭区间时间维度，起止日期会对齐到所在周期的首尾。
+     */
+    public static TimeDimension buildTimeDimension(DateGranularity granularity, LocalDate start, LocalDate end) {
+        TimeDimension timeDimension = new TimeDimension();
+        timeDimension.setDimension(TIME_DIMENSION_FIELD);
+        timeDimension.setGranularity(granularity.name().toLowerCase());
+        LocalDate normalizedStart = normalizeRangeStart(start, granularity);
+        LocalDate normalizedEnd = normalizeRangeEnd(end, granularity);
+        timeDimension.setDateRange(List.of(
+                normalizedStart.format(DATE_FORMATTER),
+                normalizedEnd.format(DATE_FORMATTER)
+        ));
+        return timeDimension;
+    }
+
+    public static LocalDate normalizeRangeStart(LocalDate date, DateGranularity granularity) {
+        return switch (granularity) {
+            case YEAR -> date.withDayOfYear(1);
+            case MONTH -> date.withDayOfMonth(1);
+            case WEEK -> date.minusDays((date.getDayOfWeek().getValue() + 6) % 7);
+            default -> date;
+        };
+    }
+
+    public static LocalDate normalizeRangeEnd(LocalDate date, DateGranularity granularity) {
+        return switch (granularity) {
+            case YEAR -> date.withDayOfYear(1).plusYears(1).minusDays(1);
+            case MONTH -> date.withDayOfMonth(1).plusMonths(1).minusDays(1);
+            case WEEK -> {
+                int value = date.getDayOfWeek().getValue();
+                int offset = (7 - (value % 7)) % 7;
+                yield date.plusDays(offset);
+            }
+            default -> date;
+        };
+    }
+
+    /**
+     * 计算 [start, end] 覆盖的周期个数（含首尾周期）。
+     */
+    public static long countPeriods(LocalDate start, LocalDate end, DateGranularity granularity) {
+        LocalDate from = normalizeRangeStart(start, granularity);
+        LocalDate to = normalizeRangeStart(end, granularity);
+        long between = switch (granularity) {
+            case YEAR -> ChronoUnit.YEARS.between(from, to);
+            case MONTH -> ChronoUnit.MONTHS.between(from, to);
+            case WEEK -> ChronoUnit.WEEKS.between(from, to);
+            default -> ChronoUnit.DAYS.between(from, to);
+        };
+        return Math.abs(between) + 1;
+    }
+
+    /**
+     * 列出 [start, end] 覆盖的各周期起始日期（含首尾周期，按时间升序）。
+     */
+    public static List<LocalDate> listPeriods(LocalDate start, LocalDate end, DateGranularity granularity) {
+        LocalDate from = normalizeRangeStart(start, granularity);
+        LocalDate to = normalizeRangeStart(end, granularity);
+        if (from.isAfter(to)) {
+            throw new SystemException("起始日期不能晚于结束日期: start=" + start + ", end=" + end);
+        }
+        List<LocalDate> periods = new ArrayList<>((int) countPeriods(from, to, granularity));
+        for (LocalDate period = from; !period.isAfter(to); period = nextPeriod(period, granularity)) {
+            periods.add(period);
+        }
+        return periods;
+    }
+
+    /**
+     * 下一个周期的起始日期，date 需已对齐到周期起点。
+     */
+    public static LocalDate nextPeriod(LocalDate date, DateGranularity granularity) {
+        return switch (granularity) {
+            case YEAR -> date.plusYears(1);
+            case MONTH -> date.plusMonths(1);
+            case WEEK -> date.plusWeeks(1);
+            default -> date.plusDays(1);
+        };
+    }
+
+    /**
+     * 将指标服务返回的时间维度取值解析为所在周期的起始日期。
+     * 兼容 yyyy-MM-dd 以及各粒度的周期格式（yyyy-ww / yyyy-MM / yyyy），无法识别时返回 null。
+     */
+    public static LocalDate resolvePeriodStart(Object rawValue, DateGranularity granularity) {
+        if (rawValue == null) {
+            return null;
+        }
+        String text = rawValue.toString().trim();
+        try {
+            if (text.length() >= 10) {
+                return normalizeRangeStart(LocalDate.parse(text.substring(0, 10), DATE_FORMATTER), granularity);
+            }
+            return switch (granularity) {
+                case YEAR -> Year.parse(text).atDay(1);
+                case MONTH -> YearMonth.parse(text).atDay(1);
+                case WEEK -> {
+                    String[] parts = text.split("-");
+                    LocalDate weekBase = LocalDate.of(Integer.parseInt(parts[0]), 6, 1)
+                            .with(IsoFields.WEEK_OF_WEEK_BASED_YEAR, Long.parseLong(parts[1]));
+                    yield normalizeRangeStart(weekBase, granularity);
+                }
+                default -> null;
+            };
+        } catch (DateTimeParseException | NumberFormatException | ArrayIndexOutOfBoundsException e) {
+            return null;
+        }
+    }
+
+    public static BigDecimal toBigDecimal(Object value) {
+        if (value == null) {
+            return BigDecimal.ZERO;
+        }
+        if (value instanceof BigDecimal bigDecimal) {
+            return bigDecimal;
+        }
+        if (value instanceof Number number) {
+            return BigDecimal.valueOf(number.doubleValue());
+        }
+        try {
+            String text = value.toString();
+            if (text.isBlank()) {
+                return BigDecimal.ZERO;
+            }
+            return new BigDecimal(text);
+        } catch (NumberFormatException ex) {
+            throw new SystemException("无法解析指标值: " + value);
+        }
+    }
+}
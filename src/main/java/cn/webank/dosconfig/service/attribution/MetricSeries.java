@@ -0,0 +1,50 @@
+package cn.webank.dosconfig.service.attribution;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 指标 × 周期的取值矩阵：{@link #periods()} 为按时间升序排列的连续周期起始日期，
+ * 每个指标对应一个与周期一一对齐的 double 数组，周期内无数据时取 0。
+ * 构建完成后只读，调用方不应修改返回的数组。
+ */
+public final class MetricSeries {
+
+    private final List<LocalDate> periods;
+    private final Map<String, double[]> values;
+    private final double[] empty;
+
+    public MetricSeries(List<LocalDate> periods, Map<String, double[]> values) {
+        this.periods = List.copyOf(periods);
+        this.values = values;
+        this.empty = new double[periods.size()];
+    }
+
+    public List<LocalDate> periods() {
+        return periods;
+    }
+
+    /**
+     * 周期个数。
+     */
+    public int length() {
+        return periods.size();
+    }
+
+    /**
+     * 指标在各周期的取值，未查询到的指标返回全 0 序列。
+     */
+    public double[] values(String metricId) {
+        return values.getOrDefault(metricId, empty);
+    }
+
+    public boolean contains(String metricId) {
+        return values.containsKey(metricId);
+    }
+
+    @Override
+    public String toString() {
+        return "MetricSeries[periods=" + periods.size() + ", metrics=" + values.size() + "]";
+    }
+}
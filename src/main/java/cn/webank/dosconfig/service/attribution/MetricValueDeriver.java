@@ -0,0 +1,107 @@
+package cn.webank.dosconfig.service.attribution;
+
+import cn.webank.dosconfig.enums.OperationType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * 由子节点在本地派生父节点的指标值与维度切片。
+ * 加法节点为子节点之和，减法节点为首个子节点减去其余子节点，乘法节点为子节点之积，除法节点为两个子节点之比。
+ * 维度切片只对加减节点派生（逐维度值相加减），乘除关系在维度值粒度上不一定成立。
+ */
+public class MetricValueDeriver {
+
+    private static final Logger LOG = LoggerFactory.getLogger(MetricValueDeriver.class);
+
+    /**
+     * 按后序补齐派生节点的指标值，子节点总是先于父节点完成，派生节点的子节点也可以是派生节点。
+     * 指标同时被非派生节点使用时已远程取数，直接沿用远程值。
+     *
+     * @param plan          执行计划
+     * @param fetchedValues 远程取回的指标值
+     * @return 包含远程值与派生值的新 Map
+     */
+    public Map<String, NodeMetricComputationEngine.MetricValue> derive(AttributionTreePlan plan,
+                                                                       Map<String, NodeMetricComputationEngine.MetricValue> fetchedValues) {
+        Map<String, NodeMetricComputationEngine.MetricValue> values = new HashMap<>(fetchedValues);
+        int derivedCount = 0;
+        for (int i = 0; i < plan.size(); i++) {
+            if (!plan.derived(i) || fetchedValues.containsKey(plan.node(i).metricId())) {
+                continue;
+            }
+            int childStart = plan.childStart(i);
+            int childEnd = plan.childEnd(i);
+            NodeMetricComputationEngine.MetricValue[] children = new NodeMetricComputationEngine.MetricValue[childEnd - childStart];
+            for (int position = childStart; position < childEnd; position++) {
+                String childMetricId = plan.node(plan.childIndex(position)).metricId();
+                NodeMetricComputationEngine.MetricValue childValue = values.get(childMetricId);
+                if (childValue == null) {
+                    throw new IllegalStateException("缺少指标值: " + childMetricId);
+                }
+                children[position - childStart] = childValue;
+            }
+            values.put(plan.node(i).metricId(), new NodeMetricComputationEngine.MetricValue(
+                    combine(plan.operation(i), children, NodeMetricComputationEngine.MetricValue::baselineValue),
+                    combine(plan.operation(i), children, NodeMetricComputationEngine.MetricValue::compareValue)));
+            derivedCount++;
+        }
+        LOG.info("派生指标值完成: fetchedCount={}, derivedCount={}", fetchedValues.size(), derivedCount);
+        return values;
+    }
+
+    /**
+     * 由子节点的完整维度切片派生加减节点的维度切片，任一子节点切片缺失或被截断时返回 null。
+     *
+     * @param operation      节点运算类型，仅支持加减
+     * @param childSlices    子节点切片，顺序与子节点配置一致
+     */
+    public DimensionSlice deriveSlice(OperationType operation, List<DimensionSlice> childSlices) {
+        if (operation != OperationType.ADD && operation != OperationType.SUB) {
+            return null;
+        }
+        int expectedSize = 0;
+        for (DimensionSlice childSlice : childSlices) {
+            if (childSlice == null || childSlice.truncated()) {
+                return null;
+            }
+            expectedSize = Math.max(expectedSize, childSlice.size());
+        }
+        DimensionSlice slice = new DimensionSlice(expectedSize);
+        for (int c = 0; c < childSlices.size(); c++) {
+            DimensionSlice childSlice = childSlices.get(c);
+            double sign = operation == OperationType.SUB && c > 0 ? -1D : 1D;
+            for (int i = 0; i < childSlice.size(); i++) {
+                if (childSlice.hasCompare(i)) {
+                    slice.addCompare(childSlice.value(i), sign * childSlice.compare(i));
+                }
+                if (childSlice.hasBaseline(i)) {
+                    slice.addBaseline(childSlice.value(i), sign * childSlice.baseline(i));
+                }
+            }
+        }
+        return slice;
+    }
+
+    private BigDecimal combine(OperationType operation,
+                               NodeMetricComputationEngine.MetricValue[] children,
+                               Function<NodeMetricComputationEngine.MetricValue, BigDecimal> period) {
+        BigDecimal result = period.apply(children[0]);
+        for (int c = 1; c < children.length; c++) {
+            BigDecimal value = period.apply(children[c]);
+            result = switch (operation) {
+                case ADD -> result.add(value);
+                case SUB -> result.subtract(value);
+                case MUL -> result.multiply(value, MathContext.DECIMAL64);
+                case DIV -> value.signum() == 0 ? BigDecimal.ZERO : result.divide(value, MathContext.DECIMAL64);
+            };
+        }
+        return result;
+    }
+}
@@ -10,10 +10,10 @@ import java.math.BigDecimal;
 import java.math.MathContext;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.EnumMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
 
 /**
  * 负责计算指标树中每个节点的基准值、对比值以及贡献度指标。
@@ -23,11 +23,19 @@ public class NodeMetricComputationEngine {
     private static final Logger LOG = LoggerFactory.getLogger(NodeMetricComputationEngine.class);
 
     private final BigDecimal epsilon;
+    private final double epsilonValue;
+    private final EvaluationMode evaluationMode;
     private final Map<OperationType, OperationDeltaStrategy> deltaStrategies = new EnumMap<>(OperationType.class);
     private final OperationDeltaStrategy defaultDeltaStrategy = new DifferenceDeltaStrategy();
 
     public NodeMetricComputationEngine(BigDecimal epsilon) {
+        this(epsilon, EvaluationMode.DECIMAL);
+    }
+
+    public NodeMetricComputationEngine(BigDecimal epsilon, EvaluationMode evaluationMode) {
         this.epsilon = epsilon;
+        this.epsilonValue = epsilon.doubleValue();
+        this.evaluationMode = evaluationMode == null ? EvaluationMode.DECIMAL : evaluationMode;
         deltaStrategies.put(OperationType.ADD, defaultDeltaStrategy);
         deltaStrategies.put(OperationType.SUB, new SubtractionDeltaStrategy());
         deltaStrategies.put(OperationType.MUL, new LmdiDeltaStrategy());
@@ -44,40 +52,58 @@ public class NodeMetricComputationEngine {
                                    LocalDate compareDate,
                                    DateGranularity granularity,
                                    Map<String, MetricValue> metricValues) {
-        LOG.info("节点指标值计算开始: rootNode={}, baseline={}, compare={}, granularity={}",
-                root.nodeId(), baselineDate, compareDate, granularity);
-        NodeComputation result = computeNode(root, metricValues);
-        LOG.info("节点指标值计算完成: rootNode={}, baselineValue={}, compareValue={}",
-                root.nodeId(), result.baselineValue, result.compareValue);
-        return result;
+        return compute(AttributionTreePlan.compile(null, null, root), baselineDate, compareDate, granularity, metricValues);
     }
 
     /**
-     * 深度优先计算单个节点：先计算子节点，再根据运算类型聚合得到当前节点的 baseline / compare / delta。
+     * 基于编译后的执行计划计算整棵指标树：按后序数组顺序逐个计算节点，子节点总是先于父节点完成，无需递归。
      */
-    private NodeComputation computeNode(MetricTreeNodeDTO node, Map<String, MetricValue> metricValues) {
-        List<NodeComputation> children = new ArrayList<>();
-        if (node.children() != null) {
-            for (MetricTreeNodeDTO child : node.children()) {
-                children.add(computeNode(child, metricValues));
+    public NodeComputation compute(AttributionTreePlan plan,
+                                   LocalDate baselineDate,
+                                   LocalDate compareDate,
+                                   DateGranularity granularity,
+                                   Map<String, MetricValue> metricValues) {
+        LOG.info("节点指标值计算开始: rootNode={}, baseline={}, compare={}, granularity={}, nodeCount={}, mode={}",
+                plan.root().nodeId(), baselineDate, compareDate, granularity, plan.size(), evaluationMode);
+        NodeComputation result;
+        if (evaluationMode == EvaluationMode.ARRAY) {
+            result = computeArray(plan, metricValues);
+        } else {
+            NodeComputation[] computations = new NodeComputation[plan.size()];
+            for (int i = 0; i < plan.size(); i++) {
+                computations[i] = computeNode(plan, i, computations, metricValues);
             }
+            result = computations[plan.rootIndex()];
         }
+        LOG.info("节点指标值计算完成: rootNode={}, baselineValue={}, compareValue={}",
+                plan.root().nodeId(), result.baselineValue, result.compareValue);
+        return result;
+    }
 
-        BigDecimal baselineValue;
-        BigDecimal compareValue;
-        OperationType operationType = Optional.ofNullable(node.op())
-                .map(String::toUpperCase)
-                .map(OperationType::valueOf)
-                .orElse(OperationType.ADD);
+    /**
+     * 计算单个节点：子节点已计算完成，根据运算类型聚合得到当前节点的 baseline / compare / delta。
+     */
+    private NodeComputation computeNode(AttributionTreePlan plan,
+                                        int index,
+                                        NodeComputation[] computations,
+                                        Map<String, MetricValue> metricValues) {
+        MetricTreeNodeDTO node = plan.node(index);
+        int childStart = plan.childStart(index);
+        int childEnd = plan.childEnd(index);
+        List<NodeComputation> children = new ArrayList<>(childEnd - childStart);
+        for (int position = childStart; position < childEnd; position++) {
+            children.add(computations[plan.childIndex(position)]);
+        }
 
-        String metricId = node.metricId();
-        MetricValue selfMetricValue = Optional.ofNullable(metricId)
-                .map(metricValues::get)
-                .orElseThrow(() -> new IllegalStateException("缺少指标值: " + node.nodeId()));
-        baselineValue = selfMetricValue.baselineValue();
-        compareValue = selfMetricValue.compareValue();
+        OperationType operationType = plan.operation(index);
+        MetricValue selfMetricValue = plan.metricSlot(index) < 0 ? null : metricValues.get(node.metricId());
+        if (selfMetricValue == null) {
+            throw new IllegalStateException("缺少指标值: " + node.nodeId());
+        }
+        BigDecimal baselineValue = selfMetricValue.baselineValue();
+        BigDecimal compareValue = selfMetricValue.compareValue();
 
-        // 3. 根据节点类型选择合适的增量拆解策略
+        // 根据节点类型选择合适的增量拆解策略
         OperationDeltaStrategy deltaStrategy = deltaStrategies.getOrDefault(operationType, defaultDeltaStrategy);
         BigDecimal deltaValue = deltaStrategy.computeDelta(baselineValue, compareValue, children);
 
@@ -90,6 +116,245 @@ public class NodeMetricComputationEngine {
         return new NodeComputation(node, compareValue, baselineValue, deltaValue, deltaRate, children);
     }
 
+    /**
+     * 数组计算：基准值、对比值、增量、增量率各占一列 double 数组，按后序下标逐个计算，计算过程中不创建节点对象；
+     * 全部完成后再一次性构建 {@link NodeComputation} 结果树。
+     * 基准值 / 对比值直接沿用查询得到的 BigDecimal，加减节点的增量在构建结果时按 BigDecimal 精确相减，
+     * 乘除节点的增量与各节点增量率由 double 结果转换。逐节点明细日志降为 DEBUG 级别。
+     */
+    private NodeComputation computeArray(AttributionTreePlan plan, Map<String, MetricValue> metricValues) {
+        List<String> metricIds = plan.metricIds();
+        MetricValue[] slotValues = new MetricValue[metricIds.size()];
+        for (int slot = 0; slot < slotValues.length; slot++) {
+            slotValues[slot] = metricValues.get(metricIds.get(slot));
+        }
+
+        int size = plan.size();
+        double[] baseline = new double[size];
+        double[] compare = new double[size];
+        double[] delta = new double[size];
+        double[] deltaRate = new double[size];
+        for (int i = 0; i < size; i++) {
+            int slot = plan.metricSlot(i);
+            MetricValue value = slot < 0 ? null : slotValues[slot];
+            if (value == null) {
+                throw new IllegalStateException("缺少指标值: " + plan.node(i).nodeId());
+            }
+            baseline[i] = value.baselineValue().doubleValue();
+            compare[i] = value.compareValue().doubleValue();
+            delta[i] = switch (plan.operation(i)) {
+                case MUL -> lmdiDelta(plan, i, baseline, compare);
+                case DIV -> ratioDelta(plan, i, baseline, compare);
+                default -> baseline[i] - compare[i];
+            };
+            deltaRate[i] = deltaRate(delta[i], baseline[i]);
+            if (LOG.isDebugEnabled()) {
+                LOG.debug("{}节点贡献: nodeId={}, baseline={}, compare={}, delta={}",
+                        plan.operation(i).name(), plan.node(i).nodeId(), baseline[i], compare[i], delta[i]);
+            }
+        }
+
+        NodeComputation[] computations = new NodeComputation[size];
+        for (int i = 0; i < size; i++) {
+            int childStart = plan.childStart(i);
+            int childEnd = plan.childEnd(i);
+            List<NodeComputation> children = new ArrayList<>(childEnd - childStart);
+            for (int position = childStart; position < childEnd; position++) {
+                children.add(computations[plan.childIndex(position)]);
+            }
+            MetricValue value = slotValues[plan.metricSlot(i)];
+            OperationType operation = plan.operation(i);
+            BigDecimal deltaValue = operation == OperationType.MUL || operation == OperationType.DIV
+                    ? toDecimal(delta[i])
+                    : value.baselineValue().subtract(value.compareValue());
+            computations[i] = new NodeComputation(plan.node(i), value.compareValue(), value.baselineValue(),
+                    deltaValue, toDecimal(deltaRate[i]), children);
+        }
+        return computations[plan.rootIndex()];
+    }
+
+    /**
+     * LMDI 拆解的 double 版本，与 {@link LmdiDeltaStrategy} 口径一致。
+     */
+    private double lmdiDelta(AttributionTreePlan plan, int index, double[] baseline, double[] compare) {
+        int childStart = plan.childStart(index);
+        int childEnd = plan.childEnd(index);
+        if (childStart == childEnd || compare[index] == baseline[index]) {
+            return baseline[index] - compare[index];
+        }
+        double logMeanValue = logMean(baseline[index], compare[index]);
+        double logChangeSum = 0D;
+        for (int position = childStart; position < childEnd; position++) {
+            int child = plan.childIndex(position);
+            logChangeSum += Math.log(sanitizeValue(compare[child])) - Math.log(sanitizeValue(baseline[child]));
+        }
+        return -(logMeanValue * logChangeSum);
+    }
+
+    /**
+     * 比值拆解的 double 版本，与 {@link RatioDeltaStrategy} 口径一致。
+     */
+    private double ratioDelta(AttributionTreePlan plan, int index, double[] baseline, double[] compare) {
+        int childStart = plan.childStart(index);
+        if (plan.childEnd(index) - childStart < 2) {
+            return baseline[index] - compare[index];
+        }
+        int numerator = plan.childIndex(childStart);
+        int denominator = plan.childIndex(childStart + 1);
+        double numeratorLogChange = Math.log(sanitizeValue(compare[numerator])) - Math.log(sanitizeValue(baseline[numerator]));
+        double denominatorLogChange = Math.log(sanitizeValue(compare[denominator])) - Math.log(sanitizeValue(baseline[denominator]));
+        return -(logMean(baseline[index], compare[index]) * (numeratorLogChange - denominatorLogChange));
+    }
+
+    /**
+     * 增量率，分母取 max(|基准值|, epsilon)；与 BigDecimal 计算一致，分母为 0（epsilon 配置为 0）时返回 0。
+     */
+    private double deltaRate(double delta, double baselineValue) {
+        double denominator = Math.max(Math.abs(baselineValue), epsilonValue);
+        return denominator == 0D ? 0D : delta / denominator;
+    }
+
+    private double sanitizeValue(double value) {
+        return value <= 0D ? epsilonValue : value;
+    }
+
+    private double logMean(double a, double b) {
+        if (a == b) {
+            return a;
+        }
+        double safeA = sanitizeValue(a);
+        double safeB = sanitizeValue(b);
+        double denominator = Math.log(safeA) - Math.log(safeB);
+        if (Math.abs(denominator) < epsilonValue) {
+            return 0D;
+        }
+        return (safeA - safeB) / denominator;
+    }
+
+    /**
+     * 多周期连续归因：基于指标 × 周期矩阵一次性计算整棵树在 N 个相邻周期对上的结果。
+     * 第 k 个周期对以 periods[k] 为基准期、periods[k + 1] 为对比期，计算口径与逐次调用
+     * {@link #compute(AttributionTreePlan, LocalDate, LocalDate, DateGranularity, Map)} 一致；
+     * 节点按后序逐个处理，每个节点内对全部周期对做一次连续的数组循环。
+     *
+     * @param plan   归因树执行计划
+     * @param series 指标取值矩阵，至少包含两个周期
+     * @return 各节点的增量、增量率与贡献度序列
+     */
+    public SweepResult computeSweep(AttributionTreePlan plan, MetricSeries series) {
+        int pairCount = series.length() - 1;
+        if (pairCount < 1) {
+            throw new IllegalArgumentException("连续归因至少需要两个周期: periods=" + series.length());
+        }
+        LOG.info("连续归因计算开始: rootNode={}, nodeCount={}, periodStart={}, periodEnd={}, pairCount={}",
+                plan.root().nodeId(), plan.size(), series.periods().get(0), series.periods().get(pairCount), pairCount);
+        int size = plan.size();
+        double[][] values = new double[size][];
+        double[][] delta = new double[size][];
+        double[][] deltaRate = new double[size][];
+        for (int i = 0; i < size; i++) {
+            String metricId = plan.node(i).metricId();
+            if (metricId == null || !series.contains(metricId)) {
+                throw new IllegalStateException("缺少指标值: " + plan.node(i).nodeId());
+            }
+            double[] nodeValues = series.values(metricId);
+            double[] nodeDelta = new double[pairCount];
+            switch (plan.operation(i)) {
+                case MUL -> lmdiSweep(plan, i, values, nodeValues, nodeDelta);
+                case DIV -> ratioSweep(plan, i, values, nodeValues, nodeDelta);
+                default -> {
+                    for (int k = 0; k < pairCount; k++) {
+                        nodeDelta[k] = nodeValues[k] - nodeValues[k + 1];
+                    }
+                }
+            }
+            double[] nodeDeltaRate = new double[pairCount];
+            for (int k = 0; k < pairCount; k++) {
+                nodeDeltaRate[k] = deltaRate(nodeDelta[k], nodeValues[k]);
+            }
+            values[i] = nodeValues;
+            delta[i] = nodeDelta;
+            deltaRate[i] = nodeDeltaRate;
+        }
+
+        int rootIndex = plan.rootIndex();
+        double[][] localContribution = new double[size][];
+        double[][] globalContribution = new double[size][];
+        for (int i = size - 1; i >= 0; i--) {
+            globalContribution[i] = contributionSeries(delta[i], delta[rootIndex]);
+            if (i == rootIndex) {
+                localContribution[i] = globalContribution[i];
+            }
+            for (int position = plan.childStart(i); position < plan.childEnd(i); position++) {
+                int child = plan.childIndex(position);
+                localContribution[child] = contributionSeries(delta[child], delta[i]);
+            }
+        }
+        LOG.info("连续归因计算完成: rootNode={}, pairCount={}", plan.root().nodeId(), pairCount);
+        return new SweepResult(plan, series.periods(), values, delta, deltaRate, localContribution, globalContribution);
+    }
+
+    private void lmdiSweep(AttributionTreePlan plan, int index, double[][] values, double[] nodeValues, double[] nodeDelta) {
+        int childStart = plan.childStart(index);
+        int childEnd = plan.childEnd(index);
+        for (int k = 0; k < nodeDelta.length; k++) {
+            nodeDelta[k] = nodeValues[k] - nodeValues[k + 1];
+        }
+        if (childStart == childEnd) {
+            return;
+        }
+        double[] logChangeSum = new double[nodeDelta.length];
+        for (int position = childStart; position < childEnd; position++) {
+            addLogChanges(values[plan.childIndex(position)], logChangeSum, 1D);
+        }
+        for (int k = 0; k < nodeDelta.length; k++) {
+            if (nodeValues[k] != nodeValues[k + 1]) {
+                nodeDelta[k] = -(logMean(nodeValues[k], nodeValues[k + 1]) * logChangeSum[k]);
+            }
+        }
+    }
+
+    private void ratioSweep(AttributionTreePlan plan, int index, double[][] values, double[] nodeValues, double[] nodeDelta) {
+        int childStart = plan.childStart(index);
+        if (plan.childEnd(index) - childStart < 2) {
+            for (int k = 0; k < nodeDelta.length; k++) {
+                nodeDelta[k] = nodeValues[k] - nodeValues[k + 1];
+            }
+            return;
+        }
+        double[] logChange = new double[nodeDelta.length];
+        addLogChanges(values[plan.childIndex(childStart)], logChange, 1D);
+        addLogChanges(values[plan.childIndex(childStart + 1)], logChange, -1D);
+        for (int k = 0; k < nodeDelta.length; k++) {
+            nodeDelta[k] = -(logMean(nodeValues[k], nodeValues[k + 1]) * logChange[k]);
+        }
+    }
+
+    /**
+     * 将子节点相邻周期的对数变化 ln(对比期) - ln(基准期) 按符号累加到 target。
+     */
+    private void addLogChanges(double[] childValues, double[] target, double sign) {
+        double previous = Math.log(sanitizeValue(childValues[0]));
+        for (int k = 0; k < target.length; k++) {
+            double current = Math.log(sanitizeValue(childValues[k + 1]));
+            target[k] += sign * (current - previous);
+            previous = current;
+        }
+    }
+
+    private double[] contributionSeries(double[] nodeDelta, double[] totalDelta) {
+        double[] contribution = new double[nodeDelta.length];
+        for (int k = 0; k < nodeDelta.length; k++) {
+            double total = Math.abs(totalDelta[k]);
+            contribution[k] = total == 0D || total < epsilonValue ? 0D : nodeDelta[k] / total;
+        }
+        return contribution;
+    }
+
+    private static BigDecimal toDecimal(double value) {
+        return value == 0D ? BigDecimal.ZERO : new BigDecimal(value, MathContext.DECIMAL64);
+    }
+
     private void logContribution(OperationType operationType,
                                  String nodeId,
                                  BigDecimal baselineValue,
@@ -127,6 +392,17 @@ public class NodeMetricComputationEngine {
             this.children = children;
         }
 
+        /**
+         * 由已持久化的节点结果还原单个节点（不含子节点），用于按需计算该节点的维度归因。
+         */
+        public static NodeComputation detached(MetricTreeNodeDTO node,
+                                               BigDecimal compareValue,
+                                               BigDecimal baselineValue,
+                                               BigDecimal deltaValue,
+                                               BigDecimal deltaRate) {
+            return new NodeComputation(node, compareValue, baselineValue, deltaValue, deltaRate, Collections.emptyList());
+        }
+
         public MetricTreeNodeDTO node() {
             return node;
         }
@@ -155,6 +431,91 @@ public class NodeMetricComputationEngine {
     public record MetricValue(BigDecimal baselineValue, BigDecimal compareValue) {
     }
 
+    /**
+     * 连续归因结果：按执行计划的后序下标存放各节点的取值、增量、增量率与贡献度序列，
+     * 第 k 个元素对应 periods[k] → periods[k + 1] 的周期对。
+     */
+    public static final class SweepResult {
+        private final AttributionTreePlan plan;
+        private final List<LocalDate> periods;
+        private final double[][] values;
+        private final double[][] delta;
+        private final double[][] deltaRate;
+        private final double[][] localContribution;
+        private final double[][] globalContribution;
+
+        private SweepResult(AttributionTreePlan plan,
+                            List<LocalDate> periods,
+                            double[][] values,
+                            double[][] delta,
+                            double[][] deltaRate,
+                            double[][] localContribution,
+                            double[][] globalContribution) {
+            this.plan = plan;
+            this.periods = periods;
+            this.values = values;
+            this.delta = delta;
+            this.deltaRate = deltaRate;
+            this.localContribution = localContribution;
+            this.globalContribution = globalContribution;
+        }
+
+        public AttributionTreePlan plan() {
+            return plan;
+        }
+
+        public List<LocalDate> periods() {
+            return periods;
+        }
+
+        public int pairCount() {
+            return periods.size() - 1;
+        }
+
+        /**
+         * 节点指标在各周期的取值（长度为周期数）。
+         */
+        public double[] values(int index) {
+            return values[index];
+        }
+
+        public double[] delta(int index) {
+            return delta[index];
+        }
+
+        public double[] deltaRate(int index) {
+            return deltaRate[index];
+        }
+
+        /**
+         * 相对父节点增量的贡献度，根节点与全局贡献度相同。
+         */
+        public double[] localContribution(int index) {
+            return localContribution[index];
+        }
+
+        /**
+         * 相对根节点增量的贡献度。
+         */
+        public double[] globalContribution(int index) {
+            return globalContribution[index];
+        }
+    }
+
+    /**
+     * 节点计算模式。
+     */
+    public enum EvaluationMode {
+        /**
+         * 逐节点 BigDecimal 计算。
+         */
+        DECIMAL,
+        /**
+         * 基于后序数组的 double 列计算，仅在最后构建结果树。
+         */
+        ARRAY
+    }
+
     /**
      * 避免出现 0 或负数参与对数运算，统一替换为 epsilon。
      */
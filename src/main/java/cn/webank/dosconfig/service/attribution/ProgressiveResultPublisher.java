@@ -0,0 +1,117 @@
+package cn.webank.dosconfig.service.attribution;
+
+import cn.webank.dosconfig.entity.attribution.dto.response.AttributionTreeResultNodeDTO;
+import cn.webank.dosconfig.exception.SystemException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+import java.util.function.IntSupplier;
+import java.util.function.Supplier;
+
+/**
+ * 归因结果的渐进发布：节点层面的结果树先行写入结果表，维度归因执行期间由任务线程按固定间隔检查完成情况，
+ * 有新完成的节点时取当前结果树快照覆盖写入，两次检查之间完成的节点合并到下一次写入。
+ * 快照组装、序列化与写库都在任务线程上执行，不占用维度线程池；中间结果写入失败只记录告警，不影响任务执行。
+ * 未开启渐进发布时只写入最终结果。发布器按任务创建，只在任务线程上使用，非线程安全。
+ */
+public class ProgressiveResultPublisher {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ProgressiveResultPublisher.class);
+    private static final long MIN_INTERVAL_MILLIS = 100L;
+
+    private final String taskId;
+    private final Consumer<AttributionTreeResultNodeDTO> writer;
+    private final boolean enabled;
+    private final long intervalMillis;
+
+    private int publishedCompletions;
+    private int publishCount;
+
+    /**
+     * @param taskId         任务ID，仅用于日志
+     * @param writer         结果树写入方式
+     * @param enabled        是否发布中间结果
+     * @param intervalMillis 检查并写入中间结果的间隔（毫秒），不低于 {@value #MIN_INTERVAL_MILLIS}
+     */
+    public ProgressiveResultPublisher(String taskId,
+                                      Consumer<AttributionTreeResultNodeDTO> writer,
+                                      boolean enabled,
+                                      long intervalMillis) {
+        this.taskId = taskId;
+        this.writer = writer;
+        this.enabled = enabled;
+        this.intervalMillis = Math.max(MIN_INTERVAL_MILLIS, intervalMillis);
+    }
+
+    /**
+     * 立即发布一次中间结果，用于节点层面计算完成后先行发布结果树。
+     */
+    public void publish(AttributionTreeResultNodeDTO resultTree) {
+        if (!enabled) {
+            return;
+        }
+        if (writeQuietly(() -> resultTree)) {
+            LOG.info("归因中间结果已发布: taskId={}", taskId);
+        }
+    }
+
+    /**
+     * 在当前线程上等待维度归因全部完成，期间每隔一个间隔检查已完成的节点数，有新完成的节点时取快照写入。
+     * 维度归因失败时与 {@link CompletableFuture#join()} 一样抛出 {@link CompletionException}。
+     *
+     * @param completion     全部维度归因完成的 future
+     * @param completedCount 当前已完成的节点数
+     * @param snapshot       当前结果树快照
+     */
+    public void awaitCompletion(CompletableFuture<?> completion,
+                                IntSupplier completedCount,
+                                Supplier<AttributionTreeResultNodeDTO> snapshot) {
+        if (!enabled) {
+            completion.join();
+            return;
+        }
+        while (true) {
+            try {
+                completion.get(intervalMillis, TimeUnit.MILLISECONDS);
+                return;
+            } catch (TimeoutException e) {
+                int completed = completedCount.getAsInt();
+                if (completed > publishedCompletions && writeQuietly(snapshot)) {
+                    LOG.debug("归因中间结果已更新: taskId={}, completedNodes={}", taskId, completed);
+                    publishedCompletions = completed;
+                }
+            } catch (ExecutionException e) {
+                throw new CompletionException(e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new SystemException("等待维度归因完成时被中断: " + taskId);
+            }
+        }
+    }
+
+    /**
+     * 写入最终结果，写入失败时抛出异常，由任务按失败处理。
+     */
+    public void finish(AttributionTreeResultNodeDTO resultTree) {
+        writer.accept(resultTree);
+        publishCount++;
+        LOG.info("归因最终结果已写入: taskId={}, publishCount={}", taskId, publishCount);
+    }
+
+    private boolean writeQuietly(Supplier<AttributionTreeResultNodeDTO> resultTree) {
+        try {
+            writer.accept(resultTree.get());
+            publishCount++;
+            return true;
+        } catch (RuntimeException e) {
+            LOG.warn("归因中间结果写入失败: taskId={}", taskId, e);
+            return false;
+        }
+    }
+}
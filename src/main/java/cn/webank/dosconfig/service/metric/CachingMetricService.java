@@ -0,0 +1,154 @@
+package cn.webank.dosconfig.service.metric;
+
+import cn.webank.dosconfig.entity.rmb.Req_04302590_01;
+import cn.webank.dosconfig.service.MetricService;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 指标查询缓存装饰器。
+ * 以 {@link MetricQueryKey} 为键缓存查询结果，按结果行数加权限制总容量（超出时按 LRU 淘汰）。
+ * 过期时间按数据日期区分：时间范围全部落在历史日期的数据不再变化，使用长 TTL；
+ * 涉及近期日期（默认仅当天）的数据可能仍在更新，使用短 TTL。
+ */
+public class CachingMetricService implements MetricService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(CachingMetricService.class);
+    private static final long STATS_LOG_INTERVAL = 1000;
+
+    private final MetricService delegate;
+    private final Duration historyTtl;
+    private final Duration recentTtl;
+    private final int recentDays;
+    private final Clock clock;
+    private final Cache<MetricQueryKey, CachedResult> cache;
+
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+    private final LongAdder expiredCount = new LongAdder();
+    private final LongAdder requestCount = new LongAdder();
+
+    public CachingMetricService(MetricService delegate,
+                                long maximumRows,
+                                Duration historyTtl,
+                                Duration recentTtl,
+                                int recentDays) {
+        this(delegate, maximumRows, historyTtl, recentTtl, recentDays, Clock.systemDefaultZone());
+    }
+
+    CachingMetricService(MetricService delegate,
+                         long maximumRows,
+                         Duration historyTtl,
+                         Duration recentTtl,
+                         int recentDays,
+                         Clock clock) {
+        this.delegate = delegate;
+        this.historyTtl = historyTtl;
+        this.recentTtl = recentTtl;
+        this.recentDays = Math.max(recentDays, 1);
+        this.clock = clock;
+        this.cache = CacheBuilder.newBuilder()
+                .maximumWeight(maximumRows)
+                .weigher((MetricQueryKey key, CachedResult value) -> value.rows().size() + 1)
+                .expireAfterWrite(historyTtl.compareTo(recentTtl) >= 0 ? historyTtl : recentTtl)
+                .recordStats()
+                .build();
+    }
+
+    @Override
+    public List<Map<String, Object>> queryResultList(Req_04302590_01 req) {
+        MetricQueryKey key = MetricQueryKey.of(req);
+        long now = clock.millis();
+        CachedResult cached = cache.getIfPresent(key);
+        if (cached != null && cached.expireAtMillis() > now) {
+            hitCount.increment();
+            logStatsIfNecessary();
+            return cached.rows();
+        }
+        if (cached != null) {
+            cache.invalidate(key);
+            expiredCount.increment();
+        }
+        missCount.increment();
+        logStatsIfNecessary();
+
+        List<Map<String, Object>> rows = delegate.queryResultList(req);
+        List<Map<String, Object>> snapshot = rows == null
+                ? Collections.emptyList()
+                : Collections.unmodifiableList(new ArrayList<>(rows));
+        cache.put(key, new CachedResult(snapshot, now + resolveTtl(key).toMillis()));
+        return snapshot;
+    }
+
+    /**
+     * 当前缓存统计快照。
+     */
+    public MetricCacheStats stats() {
+        return new MetricCacheStats(
+                hitCount.sum(),
+                missCount.sum(),
+                cache.stats().evictionCount(),
+                expiredCount.sum(),
+                cache.size()
+        );
+    }
+
+    /**
+     * 清空缓存，用于数据回刷后主动失效。
+     */
+    public void invalidateAll() {
+        cache.invalidateAll();
+        LOG.info("指标查询缓存已清空");
+    }
+
+    private Duration resolveTtl(MetricQueryKey key) {
+        LocalDate latestDate = key.latestDate();
+        if (latestDate == null) {
+            return recentTtl;
+        }
+        LocalDate firstRecentDate = LocalDate.now(clock).minusDays(recentDays - 1L);
+        return latestDate.isBefore(firstRecentDate) ? historyTtl : recentTtl;
+    }
+
+    private void logStatsIfNecessary() {
+        requestCount.increment();
+        if (requestCount.sum() % STATS_LOG_INTERVAL == 0) {
+            LOG.info("指标查询缓存统计: {}", stats());
+        }
+    }
+
+    private record CachedResult(List<Map<String, Object>> rows, long expireAtMillis) {
+    }
+
+    /**
+     * 缓存统计信息。
+     *
+     * @param hitCount      命中次数
+     * @param missCount     未命中次数（含过期）
+     * @param evictionCount 因容量或最长 TTL 被淘汰的条目数
+     * @param expiredCount  读取时发现已超过按日期计算的 TTL 的条目数
+     * @param size          当前条目数
+     */
+    public record MetricCacheStats(long hitCount,
+                                   long missCount,
+                                   long evictionCount,
+                                   long expiredCount,
+                                   long size) {
+
+        public double hitRate() {
+            long total = hitCount + missCount;
+            return total == 0 ? 0D : (double) hitCount / total;
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package cn.webank.dosconfig.service.metric;
+
+import cn.webank.dosconfig.entity.rmb.Req_04302590_01;
+import cn.webank.dosconfig.service.MetricService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 相同查询合并装饰器（single-flight）。
+ * 并发到达的规范化指纹相同的请求只向下游发起一次调用，其余调用方等待并共享同一结果；
+ * 调用完成（成功或失败）后立即移出在途登记表，后续请求重新发起。
+ */
+public class CoalescingMetricService implements MetricService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(CoalescingMetricService.class);
+
+    private final MetricService delegate;
+    private final ConcurrentMap<MetricQueryKey, CompletableFuture<List<Map<String, Object>>>> inFlight =
+            new ConcurrentHashMap<>();
+    private final LongAdder coalescedCount = new LongAdder();
+
+    public CoalescingMetricService(MetricService delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public List<Map<String, Object>> queryResultList(Req_04302590_01 req) {
+        MetricQueryKey key = MetricQueryKey.of(req);
+        CompletableFuture<List<Map<String, Object>>> created = new CompletableFuture<>();
+        CompletableFuture<List<Map<String, Object>>> existing = inFlight.putIfAbsent(key, created);
+        if (existing != null) {
+            coalescedCount.increment();
+            LOG.debug("指标查询合并到在途请求: key={}", key);
+            return await(existing);
+        }
+        try {
+            List<Map<String, Object>> rows = delegate.queryResultList(req);
+            created.complete(rows == null
+                    ? Collections.emptyList()
+                    : Collections.unmodifiableList(new ArrayList<>(rows)));
+        } catch (RuntimeException | Error e) {
+            created.completeExceptionally(e);
+        } finally {
+            inFlight.remove(key, created);
+        }
+        return await(created);
+    }
+
+    /**
+     * 当前在途的不同查询数。
+     */
+    public int inFlightCount() {
+        return inFlight.size();
+    }
+
+    /**
+     * 累计被合并（未实际发起下游调用）的请求数。
+     */
+    public long coalescedCount() {
+        return coalescedCount.sum();
+    }
+
+    /**
+     * 当前合并统计快照。
+     */
+    public CoalescingStats stats() {
+        return new CoalescingStats(inFlightCount(), coalescedCount());
+    }
+
+    private List<Map<String, Object>> await(CompletableFuture<List<Map<String, Object>>> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * 合并统计信息。
+     *
+     * @param inFlightCount  当前在途的不同查询数
+     * @param coalescedCount 累计被合并的请求数
+     */
+    public record CoalescingStats(int inFlightCount, long coalescedCount) {
+    }
+}
@@ -0,0 +1,238 @@
+package cn.webank.dosconfig.service.metric;
+
+import cn.webank.dosconfig.entity.rmb.Req_04302590_01;
+import cn.webank.dosconfig.exception.SystemException;
+import cn.webank.dosconfig.service.MetricRowVisitor;
+import cn.webank.dosconfig.service.MetricService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 自适应并发限制装饰器（AIMD）。
+ * 所有任务与趋势查询共享同一个并发上限：调用耗时低于阈值且并发已用满时加性增加上限（每个上限周期 +1），
+ * 调用超时或失败时乘性降低上限，避免下游变慢时继续加压。
+ * 超出上限的请求排队等待，队列已满或等待超时则直接拒绝。
+ */
+public class ConcurrencyLimitingMetricService implements MetricService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ConcurrencyLimitingMetricService.class);
+    private static final long STATS_LOG_INTERVAL = 1000;
+
+    private final MetricService delegate;
+    private final int minLimit;
+    private final int maxLimit;
+    private final long latencyThresholdNanos;
+    private final double backoffRatio;
+    private final int maxQueueDepth;
+    private final long maxWaitNanos;
+
+    private final ReentrantLock lock = new ReentrantLock(true);
+    private final Condition permitAvailable = lock.newCondition();
+    private double limit;
+    private int inFlight;
+    private int queueDepth;
+    private long lastDecreaseNanos;
+
+    private final LongAdder requestCount = new LongAdder();
+    private final LongAdder rejectedCount = new LongAdder();
+
+    public ConcurrencyLimitingMetricService(MetricService delegate,
+                                            int initialLimit,
+                                            int minLimit,
+                                            int maxLimit,
+                                            Duration latencyThreshold,
+                                            double backoffRatio,
+                                            int maxQueueDepth,
+                                            Duration maxWait) {
+        this.delegate = delegate;
+        this.minLimit = Math.max(minLimit, 1);
+        this.maxLimit = Math.max(maxLimit, this.minLimit);
+        this.limit = Math.min(Math.max(initialLimit, this.minLimit), this.maxLimit);
+        this.latencyThresholdNanos = latencyThreshold.toNanos();
+        this.backoffRatio = backoffRatio;
+        this.maxQueueDepth = Math.max(maxQueueDepth, 0);
+        this.maxWaitNanos = maxWait.toNanos();
+        this.lastDecreaseNanos = System.nanoTime() - latencyThresholdNanos;
+    }
+
+    @Override
+    public List<Map<String, Object>> queryResultList(Req_04302590_01 req) {
+        acquire();
+        long start = System.nanoTime();
+        boolean success = false;
+        try {
+            List<Map<String, Object>> rows = delegate.queryResultList(req);
+            success = true;
+            return rows;
+        } finally {
+            release(System.nanoTime() - start, success);
+            logStatsIfNecessary();
+        }
+    }
+
+    /**
+     * 流式查询同样占用一个并发许可，转交下游逐行回调；回调在许可内执行，耗时计入下游延迟，回调中不应做重操作。
+     */
+    @Override
+    public int queryRows(Req_04302590_01 req, MetricRowVisitor visitor) {
+        acquire();
+        long start = System.nanoTime();
+        boolean success = false;
+        try {
+            int rows = delegate.queryRows(req, visitor);
+            success = true;
+            return rows;
+        } finally {
+            release(System.nanoTime() - start, success);
+            logStatsIfNecessary();
+        }
+    }
+
+    /**
+     * 当前并发上限。
+     */
+    public int currentLimit() {
+        lock.lock();
+        try {
+            return (int) limit;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 当前正在执行的下游调用数。
+     */
+    public int inFlight() {
+        lock.lock();
+        try {
+            return inFlight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 当前排队等待的请求数。
+     */
+    public int queueDepth() {
+        lock.lock();
+        try {
+            return queueDepth;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 当前限流统计快照。
+     */
+    public LimiterStats stats() {
+        lock.lock();
+        try {
+            return new LimiterStats((int) limit, inFlight, queueDepth, requestCount.sum(), rejectedCount.sum());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void acquire() {
+        lock.lock();
+        try {
+            if (inFlight < (int) limit) {
+                inFlight++;
+                return;
+            }
+            if (queueDepth >= maxQueueDepth) {
+                reject("排队已满");
+            }
+            queueDepth++;
+            try {
+                long remaining = maxWaitNanos;
+                while (inFlight >= (int) limit) {
+                    if (remaining <= 0L) {
+                        reject("等待超时");
+                    }
+                    remaining = permitAvailable.awaitNanos(remaining);
+                }
+                inFlight++;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new SystemException("指标查询等待并发许可被中断");
+            } finally {
+                queueDepth--;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void release(long elapsedNanos, boolean success) {
+        lock.lock();
+        try {
+            boolean saturated = inFlight >= (int) limit;
+            inFlight--;
+            int previous = (int) limit;
+            long now = System.nanoTime();
+            if (!success || elapsedNanos > latencyThresholdNanos) {
+                // 一个阈值周期内只降一次，避免同一批慢请求集中返回时把上限压到底
+                if (now - lastDecreaseNanos >= latencyThresholdNanos) {
+                    limit = Math.max(minLimit, Math.floor(limit * backoffRatio));
+                    lastDecreaseNanos = now;
+                }
+            } else if (saturated) {
+                limit = Math.min(maxLimit, limit + 1D / limit);
+            }
+            int current = (int) limit;
+            if (current != previous) {
+                LOG.info("指标查询并发上限调整: {} -> {}, success={}, elapsedMs={}",
+                        previous, current, success, TimeUnit.NANOSECONDS.toMillis(elapsedNanos));
+            }
+            if (current > previous) {
+                permitAvailable.signalAll();
+            } else {
+                permitAvailable.signal();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void reject(String reason) {
+        rejectedCount.increment();
+        LOG.warn("指标查询被限流拒绝: reason={}, limit={}, inFlight={}, queueDepth={}",
+                reason, (int) limit, inFlight, queueDepth);
+        throw new SystemException("指标查询并发已达上限(" + reason + ")，请稍后重试");
+    }
+
+    private void logStatsIfNecessary() {
+        requestCount.increment();
+        if (requestCount.sum() % STATS_LOG_INTERVAL == 0) {
+            LOG.info("指标查询限流统计: {}", stats());
+        }
+    }
+
+    /**
+     * 限流统计信息。
+     *
+     * @param limit         当前并发上限
+     * @param inFlight      正在执行的下游调用数
+     * @param queueDepth    排队等待的请求数
+     * @param requestCount  累计完成的下游调用数
+     * @param rejectedCount 累计被拒绝的请求数
+     */
+    public record LimiterStats(int limit,
+                               int inFlight,
+                               int queueDepth,
+                               long requestCount,
+                               long rejectedCount) {
+    }
+}
@@ -0,0 +1,195 @@
+package cn.webank.dosconfig.service.metric;
+
+import cn.webank.dosconfig.entity.FieldOrder;
+import cn.webank.dosconfig.entity.FilterCondition;
+import cn.webank.dosconfig.entity.ImmutableFilterCondition;
+import cn.webank.dosconfig.entity.TimeDimension;
+import cn.webank.dosconfig.entity.rmb.Req_04302590_01;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 指标查询请求的规范化指纹，用于缓存与请求合并。
+ * 指标、维度列表与返回结果的行内容无关顺序，统一排序；时间维度、过滤条件、排序、条数按原语义参与指纹。
+ * 指纹为紧凑 JSON，直接拼接生成，过滤条件嵌入其规范化 JSON。
+ */
+public final class MetricQueryKey {
+
+    private final String canonical;
+    private final int hash;
+    private final LocalDate latestDate;
+
+    private MetricQueryKey(String canonical, LocalDate latestDate) {
+        this.canonical = canonical;
+        this.hash = canonical.hashCode();
+        this.latestDate = latestDate;
+    }
+
+    public static MetricQueryKey of(Req_04302590_01 req) {
+        StringBuilder canonical = new StringBuilder(256);
+        canonical.append("{\"metrics\":");
+        appendStrings(canonical, sorted(req.getMetrics()));
+        canonical.append(",\"dimensions\":");
+        appendStrings(canonical, sorted(req.getDimensions()));
+        canonical.append(",\"timeDimensions\":");
+        appendTimeDimensions(canonical, req.getTimeDimensions());
+        canonical.append(",\"filters\":").append(canonicalFilter(req.getFilters()));
+        canonical.append(",\"sort\":");
+        appendSort(canonical, req.getSort());
+        canonical.append(",\"limit\":").append(req.getLimit()).append('}');
+        return new MetricQueryKey(canonical.toString(), resolveLatestDate(req.getTimeDimensions()));
+    }
+
+    /**
+     * 请求时间范围内最晚的日期，用于判断数据是否可能仍在变化；没有时间维度时返回 null。
+     */
+    public LocalDate latestDate() {
+        return latestDate;
+    }
+
+    public String canonical() {
+        return canonical;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof MetricQueryKey other)) {
+            return false;
+        }
+        return hash == other.hash && canonical.equals(other.canonical);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return canonical;
+    }
+
+    private static List<String> sorted(List<String> values) {
+        if (values == null || values.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<String> copy = new ArrayList<>(values);
+        Collections.sort(copy);
+        return copy;
+    }
+
+    private static void appendTimeDimensions(StringBuilder out, List<TimeDimension> timeDimensions) {
+        out.append('[');
+        if (timeDimensions != null) {
+            for (int i = 0; i < timeDimensions.size(); i++) {
+                TimeDimension timeDimension = timeDimensions.get(i);
+                if (i > 0) {
+                    out.append(',');
+                }
+                out.append('[');
+                appendString(out, String.valueOf(timeDimension.getDimension()));
+                out.append(',');
+                appendString(out, String.valueOf(timeDimension.getGranularity()).toLowerCase());
+                out.append(',');
+                appendStrings(out, timeDimension.getDateRange());
+                out.append(']');
+            }
+        }
+        out.append(']');
+    }
+
+    /**
+     * 过滤条件的规范化 JSON 原样嵌入指纹；不可变过滤条件直接复用构造时算好的规范化 JSON，不再重复序列化。
+     */
+    private static String canonicalFilter(FilterCondition filter) {
+        if (filter == null || filter.isEmpty()) {
+            return "null";
+        }
+        if (filter instanceof ImmutableFilterCondition immutable) {
+            return immutable.getCanonicalJson();
+        }
+        return FilterCondition.toJson(filter);
+    }
+
+    private static void appendSort(StringBuilder out, List<FieldOrder> orders) {
+        out.append('[');
+        if (orders != null) {
+            for (int i = 0; i < orders.size(); i++) {
+                if (i > 0) {
+                    out.append(',');
+                }
+                FieldOrder order = orders.get(i);
+                appendString(out, order.getField() + " " + String.valueOf(order.getOrder()).toLowerCase());
+            }
+        }
+        out.append(']');
+    }
+
+    private static void appendStrings(StringBuilder out, List<String> values) {
+        out.append('[');
+        if (values != null) {
+            for (int i = 0; i < values.size(); i++) {
+                if (i > 0) {
+                    out.append(',');
+                }
+                appendString(out, values.get(i));
+            }
+        }
+        out.append(']');
+    }
+
+    /**
+     * 按 JSON 字符串规则转义写入，null 写为 null。
+     */
+    private static void appendString(StringBuilder out, String value) {
+        if (value == null) {
+            out.append("null");
+            return;
+        }
+        out.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                out.append('\\').append(c);
+            } else if (c < 0x20) {
+                out.append(String.format("\\u%04x", (int) c));
+            } else {
+                out.append(c);
+            }
+        }
+        out.append('"');
+    }
+
+    private static LocalDate resolveLatestDate(List<TimeDimension> timeDimensions) {
+        if (timeDimensions == null) {
+            return null;
+        }
+        LocalDate latest = null;
+        for (TimeDimension timeDimension : timeDimensions) {
+            if (timeDimension.getDateRange() == null) {
+                continue;
+            }
+            for (String date : timeDimension.getDateRange()) {
+                if (date == null) {
+                    return null;
+                }
+                try {
+                    LocalDate parsed = LocalDate.parse(date);
+                    if (latest == null || parsed.isAfter(latest)) {
+                        latest = parsed;
+                    }
+                } catch (DateTimeParseException e) {
+                    return null;
+                }
+            }
+        }
+        return latest;
+    }
+}
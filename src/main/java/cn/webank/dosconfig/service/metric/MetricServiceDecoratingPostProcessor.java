@@ -0,0 +1,114 @@
+package cn.webank.dosconfig.service.metric;
+
+import cn.webank.dosconfig.service.MetricService;
+import cn.webank.dosconfig.service.metric.cube.InMemoryCubeMetricService;
+import cn.webank.dosconfig.service.metric.replay.RecordingMetricService;
+import cn.webank.dosconfig.service.metric.replay.ReplayMetricService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.core.env.Environment;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * 为容器中的 {@link MetricService} 实现统一挂载装饰器。
+ * 指标服务的实际实现由外部系统提供，这里在其初始化完成后按配置包装，调用方注入的即为装饰后的实例。
+ * 装饰顺序由内到外：录制 -> 自适应限流 -> 相同请求合并 -> 结果缓存，缓存未命中的并发请求再经合并只打一次下游，
+ * 只有真正发往下游的调用才占用并发许可；录制紧贴下游，记录的是真实调用及其耗时。
+ * cube / replay 模式下只处理替身实例，容器中其他指标服务实现原样返回；替身默认与远程实现挂载相同的装饰器，
+ * 压测覆盖的是生产调用链。需要让每次请求都落到替身、按录制时序回放时，开启 attribution.metric-service.stand-in-bare
+ * 只保留录制装饰器。
+ * 挂载的缓存、合并与限流装饰器登记到 {@link MetricServiceStatsRegistry}，由状态接口读取实时统计。
+ */
+public class MetricServiceDecoratingPostProcessor implements BeanPostProcessor, DisposableBean {
+
+    private static final Logger LOG = LoggerFactory.getLogger(MetricServiceDecoratingPostProcessor.class);
+    private static final String MODE_REMOTE = "remote";
+
+    private final Environment environment;
+    private final MetricServiceStatsRegistry statsRegistry;
+    private final List<Closeable> closeables = new CopyOnWriteArrayList<>();
+
+    public MetricServiceDecoratingPostProcessor(Environment environment, MetricServiceStatsRegistry statsRegistry) {
+        this.environment = environment;
+        this.statsRegistry = statsRegistry;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (!(bean instanceof MetricService metricService)) {
+            return bean;
+        }
+        String mode = environment.getProperty("attribution.metric-service.mode", MODE_REMOTE);
+        boolean standIn = metricService instanceof InMemoryCubeMetricService || metricService instanceof ReplayMetricService;
+        if (!MODE_REMOTE.equals(mode) && !standIn) {
+            LOG.info("指标服务替身模式下不装饰其他实现: beanName={}, mode={}", beanName, mode);
+            return bean;
+        }
+        MetricService decorated = metricService;
+        if (environment.getProperty("attribution.metric-recording.enabled", Boolean.class, false)) {
+            RecordingMetricService recording = new RecordingMetricService(
+                    decorated,
+                    Path.of(environment.getProperty("attribution.metric-recording.path", "metric-recording.jsonl.gz"))
+            );
+            closeables.add(recording);
+            decorated = recording;
+        }
+        if (standIn && environment.getProperty("attribution.metric-service.stand-in-bare", Boolean.class, false)) {
+            LOG.info("指标服务替身不挂载缓存、合并与限流: beanName={}, mode={}, decorated={}",
+                    beanName, mode, decorated.getClass().getSimpleName());
+            return decorated;
+        }
+        ConcurrencyLimitingMetricService limiter = null;
+        CoalescingMetricService coalescing = null;
+        CachingMetricService cache = null;
+        if (environment.getProperty("attribution.metric-limiter.enabled", Boolean.class, true)) {
+            limiter = new ConcurrencyLimitingMetricService(
+                    decorated,
+                    environment.getProperty("attribution.metric-limiter.initial-limit", Integer.class, 16),
+                    environment.getProperty("attribution.metric-limiter.min-limit", Integer.class, 2),
+                    environment.getProperty("attribution.metric-limiter.max-limit", Integer.class, 64),
+                    Duration.ofMillis(environment.getProperty("attribution.metric-limiter.latency-threshold-ms", Long.class, 20000L)),
+                    environment.getProperty("attribution.metric-limiter.backoff-ratio", Double.class, 0.7D),
+                    environment.getProperty("attribution.metric-limiter.max-queue-depth", Integer.class, 500),
+                    Duration.ofMillis(environment.getProperty("attribution.metric-limiter.max-wait-ms", Long.class, 60000L))
+            );
+            decorated = limiter;
+        }
+        if (environment.getProperty("attribution.metric-coalescing.enabled", Boolean.class, true)) {
+            coalescing = new CoalescingMetricService(decorated);
+            decorated = coalescing;
+        }
+        if (environment.getProperty("attribution.metric-cache.enabled", Boolean.class, true)) {
+            cache = new CachingMetricService(
+                    decorated,
+                    environment.getProperty("attribution.metric-cache.maximum-rows", Long.class, 500000L),
+                    Duration.ofMinutes(environment.getProperty("attribution.metric-cache.history-ttl-minutes", Long.class, 1440L)),
+                    Duration.ofMinutes(environment.getProperty("attribution.metric-cache.recent-ttl-minutes", Long.class, 5L)),
+                    environment.getProperty("attribution.metric-cache.recent-days", Integer.class, 1)
+            );
+            decorated = cache;
+        }
+        statsRegistry.register(beanName, cache, coalescing, limiter);
+        LOG.info("指标服务装饰完成: beanName={}, decorated={}", beanName, decorated.getClass().getSimpleName());
+        return decorated;
+    }
+
+    @Override
+    public void destroy() {
+        for (Closeable closeable : closeables) {
+            try {
+                closeable.close();
+            } catch (IOException e) {
+                LOG.warn("关闭指标服务装饰器失败", e);
+            }
+        }
+    }
+}
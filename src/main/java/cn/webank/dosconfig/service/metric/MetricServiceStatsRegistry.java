@@ -0,0 +1,58 @@
+package cn.webank.dosconfig.service.metric;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 指标服务装饰器登记表：{@link MetricServiceDecoratingPostProcessor} 装饰完成后按 beanName 登记挂载的缓存、合并与限流装饰器，
+ * 供状态接口读取各装饰器的实时统计。
+ */
+public class MetricServiceStatsRegistry {
+
+    private final Map<String, Decorators> decorators = new ConcurrentHashMap<>();
+
+    /**
+     * 登记指标服务实例上挂载的装饰器，未挂载的传 null。
+     */
+    void register(String beanName,
+                  CachingMetricService cache,
+                  CoalescingMetricService coalescing,
+                  ConcurrencyLimitingMetricService limiter) {
+        decorators.put(beanName, new Decorators(cache, coalescing, limiter));
+    }
+
+    /**
+     * 各指标服务实例当前的装饰器统计快照，未挂载的装饰器对应字段为 null。
+     */
+    public List<MetricServiceStats> snapshot() {
+        List<MetricServiceStats> stats = new ArrayList<>(decorators.size());
+        decorators.forEach((beanName, registered) -> stats.add(new MetricServiceStats(
+                beanName,
+                registered.cache() == null ? null : registered.cache().stats(),
+                registered.coalescing() == null ? null : registered.coalescing().stats(),
+                registered.limiter() == null ? null : registered.limiter().stats()
+        )));
+        return stats;
+    }
+
+    private record Decorators(CachingMetricService cache,
+                              CoalescingMetricService coalescing,
+                              ConcurrencyLimitingMetricService limiter) {
+    }
+
+    /**
+     * 单个指标服务实例的装饰器统计。
+     *
+     * @param beanName   指标服务 beanName
+     * @param cache      结果缓存统计
+     * @param coalescing 相同请求合并统计
+     * @param limiter    自适应限流统计
+     */
+    public record MetricServiceStats(String beanName,
+                                     CachingMetricService.MetricCacheStats cache,
+                                     CoalescingMetricService.CoalescingStats coalescing,
+                                     ConcurrencyLimitingMetricService.LimiterStats limiter) {
+    }
+}
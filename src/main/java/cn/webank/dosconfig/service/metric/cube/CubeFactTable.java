@@ -0,0 +1,162 @@
+package cn.webank.dosconfig.service.metric.cube;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 内存列式事实表。
+ * 日期按 epochDay 存为 int 列，维度列做字典编码（int 编码 + 字典），指标列为 double 列。
+ * 构建完成后只读，可被多个查询线程并发访问。
+ */
+public final class CubeFactTable {
+
+    private final int rowCount;
+    private final int[] epochDays;
+    private final Map<String, DimensionColumn> dimensions;
+    private final Map<String, double[]> metrics;
+
+    private CubeFactTable(int rowCount,
+                          int[] epochDays,
+                          Map<String, DimensionColumn> dimensions,
+                          Map<String, double[]> metrics) {
+        this.rowCount = rowCount;
+        this.epochDays = epochDays;
+        this.dimensions = Collections.unmodifiableMap(dimensions);
+        this.metrics = Collections.unmodifiableMap(metrics);
+    }
+
+    public static Builder builder(List<String> dimensionNames, List<String> metricNames) {
+        return new Builder(dimensionNames, metricNames);
+    }
+
+    public int rowCount() {
+        return rowCount;
+    }
+
+    public int epochDay(int row) {
+        return epochDays[row];
+    }
+
+    public DimensionColumn dimension(String name) {
+        return dimensions.get(name);
+    }
+
+    public double[] metric(String name) {
+        return metrics.get(name);
+    }
+
+    public boolean hasDimension(String name) {
+        return dimensions.containsKey(name);
+    }
+
+    public boolean hasMetric(String name) {
+        return metrics.containsKey(name);
+    }
+
+    public List<String> dimensionNames() {
+        return new ArrayList<>(dimensions.keySet());
+    }
+
+    public List<String> metricNames() {
+        return new ArrayList<>(metrics.keySet());
+    }
+
+    /**
+     * 字典编码的维度列。
+     *
+     * @param dictionary 编码 -> 维度取值
+     * @param codes      行 -> 编码
+     */
+    public record DimensionColumn(String[] dictionary, int[] codes) {
+
+        public String value(int row) {
+            return dictionary[codes[row]];
+        }
+
+        public int cardinality() {
+            return dictionary.length;
+        }
+    }
+
+    /**
+     * 逐行追加构建事实表，非线程安全。
+     */
+    public static final class Builder {
+
+        private final List<String> dimensionNames;
+        private final List<String> metricNames;
+        private final List<Map<String, Integer>> dictionaries = new ArrayList<>();
+        private final List<List<String>> dictionaryValues = new ArrayList<>();
+        private int[] epochDays = new int[1024];
+        private int[][] dimensionCodes;
+        private double[][] metricValues;
+        private int size;
+
+        private Builder(List<String> dimensionNames, List<String> metricNames) {
+            this.dimensionNames = List.copyOf(dimensionNames);
+            this.metricNames = List.copyOf(metricNames);
+            this.dimensionCodes = new int[dimensionNames.size()][1024];
+            this.metricValues = new double[metricNames.size()][1024];
+            for (int i = 0; i < dimensionNames.size(); i++) {
+                dictionaries.add(new HashMap<>());
+                dictionaryValues.add(new ArrayList<>());
+            }
+        }
+
+        /**
+         * 追加一行，维度取值与指标值的顺序与构建时声明的名称顺序一致。
+         */
+        public Builder addRow(LocalDate date, String[] dimensionValues, double[] metricRow) {
+            ensureCapacity(size + 1);
+            epochDays[size] = (int) date.toEpochDay();
+            for (int i = 0; i < dimensionNames.size(); i++) {
+                String value = dimensionValues[i];
+                List<String> values = dictionaryValues.get(i);
+                int code = dictionaries.get(i).computeIfAbsent(value, v -> {
+                    values.add(v);
+                    return values.size() - 1;
+                });
+                dimensionCodes[i][size] = code;
+            }
+            for (int i = 0; i < metricNames.size(); i++) {
+                metricValues[i][size] = metricRow[i];
+            }
+            size++;
+            return this;
+        }
+
+        public CubeFactTable build() {
+            Map<String, DimensionColumn> dimensions = new LinkedHashMap<>();
+            for (int i = 0; i < dimensionNames.size(); i++) {
+                dimensions.put(dimensionNames.get(i), new DimensionColumn(
+                        dictionaryValues.get(i).toArray(new String[0]),
+                        Arrays.copyOf(dimensionCodes[i], size)));
+            }
+            Map<String, double[]> metrics = new LinkedHashMap<>();
+            for (int i = 0; i < metricNames.size(); i++) {
+                metrics.put(metricNames.get(i), Arrays.copyOf(metricValues[i], size));
+            }
+            return new CubeFactTable(size, Arrays.copyOf(epochDays, size), dimensions, metrics);
+        }
+
+        private void ensureCapacity(int required) {
+            if (required <= epochDays.length) {
+                return;
+            }
+            int capacity = Math.max(required, epochDays.length * 2);
+            epochDays = Arrays.copyOf(epochDays, capacity);
+            for (int i = 0; i < dimensionCodes.length; i++) {
+                dimensionCodes[i] = Arrays.copyOf(dimensionCodes[i], capacity);
+            }
+            for (int i = 0; i < metricValues.length; i++) {
+                metricValues[i] = Arrays.copyOf(metricValues[i], capacity);
+            }
+        }
+    }
+}
@@ -0,0 +1,185 @@
+package cn.webank.dosconfig.service.metric.cube;
+
+import cn.webank.dosconfig.entity.FilterCondition;
+import cn.webank.dosconfig.exception.SystemException;
+import cn.webank.dosconfig.service.attribution.MetricQuerySupport;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * 将 {@link FilterCondition} 编译为基于行号的谓词。
+ * 维度字段在编译期对字典逐项求值得到命中表，执行期只需按编码查表；时间字段按 epochDay 比较，指标字段按数值比较。
+ * NOT 节点语义为「子条件全部满足」取反。
+ */
+final class CubeFilterCompiler {
+
+    private static final RowPredicate ALWAYS = row -> true;
+
+    private CubeFilterCompiler() {
+    }
+
+    /**
+     * 行谓词。
+     */
+    @FunctionalInterface
+    interface RowPredicate {
+        boolean test(int row);
+    }
+
+    static RowPredicate compile(FilterCondition condition, CubeFactTable table) {
+        if (condition == null || condition.isEmpty()) {
+            return ALWAYS;
+        }
+        if (FilterCondition.FIELD_NODE.equalsIgnoreCase(condition.getNodeType())) {
+            return compileField(condition, table);
+        }
+        List<RowPredicate> children = new ArrayList<>();
+        for (FilterCondition child : condition.getSubConditions()) {
+            if (child != null && !child.isEmpty()) {
+                children.add(compile(child, table));
+            }
+        }
+        RowPredicate[] predicates = children.toArray(new RowPredicate[0]);
+        String relation = String.valueOf(condition.getRelation()).toUpperCase(Locale.ROOT);
+        return switch (relation) {
+            case FilterCondition.RELATION_AND -> all(predicates);
+            case FilterCondition.RELATION_OR -> row -> {
+                for (RowPredicate predicate : predicates) {
+                    if (predicate.test(row)) {
+                        return true;
+                    }
+                }
+                return false;
+            };
+            case FilterCondition.RELATION_NOT -> {
+                RowPredicate all = all(predicates);
+                yield row -> !all.test(row);
+            }
+            default -> throw new SystemException("不支持的过滤关系: " + condition.getRelation());
+        };
+    }
+
+    private static RowPredicate all(RowPredicate[] predicates) {
+        return row -> {
+            for (RowPredicate predicate : predicates) {
+                if (!predicate.test(row)) {
+                    return false;
+                }
+            }
+            return true;
+        };
+    }
+
+    private static RowPredicate compileField(FilterCondition condition, CubeFactTable table) {
+        String field = condition.getField();
+        String op = String.valueOf(condition.getOp()).toUpperCase(Locale.ROOT);
+        Object value = condition.getValue();
+        if (MetricQuerySupport.TIME_DIMENSION_FIELD.equals(field)) {
+            double[] operands = toValues(value).stream().mapToDouble(CubeFilterCompiler::toEpochDay).toArray();
+            return row -> matchNumber(table.epochDay(row), op, operands);
+        }
+        if (table.hasDimension(field)) {
+            CubeFactTable.DimensionColumn column = table.dimension(field);
+            boolean[] hits = new boolean[column.cardinality()];
+            for (int code = 0; code < hits.length; code++) {
+                hits[code] = matchString(column.dictionary()[code], op, value);
+            }
+            int[] codes = column.codes();
+            return row -> hits[codes[row]];
+        }
+        if (table.hasMetric(field)) {
+            double[] column = table.metric(field);
+            double[] operands = toValues(value).stream().mapToDouble(CubeFilterCompiler::toNumber).toArray();
+            return row -> matchNumber(column[row], op, operands);
+        }
+        throw new SystemException("未知的过滤字段: " + field);
+    }
+
+    private static boolean matchString(String actual, String op, Object value) {
+        List<Object> values = toValues(value);
+        String expected = values.isEmpty() ? null : String.valueOf(values.get(0));
+        return switch (op) {
+            case "EQ" -> actual.equals(expected);
+            case "NE" -> !actual.equals(expected);
+            case "GT" -> expected != null && actual.compareTo(expected) > 0;
+            case "GTE" -> expected != null && actual.compareTo(expected) >= 0;
+            case "LT" -> expected != null && actual.compareTo(expected) < 0;
+            case "LTE" -> expected != null && actual.compareTo(expected) <= 0;
+            case "IN" -> values.stream().anyMatch(v -> actual.equals(String.valueOf(v)));
+            case "NOT_IN" -> values.stream().noneMatch(v -> actual.equals(String.valueOf(v)));
+            case "LIKE" -> expected != null && likePattern(expected).matcher(actual).matches();
+            default -> throw new SystemException("不支持的过滤操作符: " + op);
+        };
+    }
+
+    private static boolean matchNumber(double actual, String op, double[] operands) {
+        double expected = operands.length == 0 ? Double.NaN : operands[0];
+        return switch (op) {
+            case "EQ" -> actual == expected;
+            case "NE" -> actual != expected;
+            case "GT" -> actual > expected;
+            case "GTE" -> actual >= expected;
+            case "LT" -> actual < expected;
+            case "LTE" -> actual <= expected;
+            case "IN", "NOT_IN" -> {
+                boolean found = false;
+                for (double operand : operands) {
+                    if (actual == operand) {
+                        found = true;
+                        break;
+                    }
+                }
+                yield "IN".equals(op) == found;
+            }
+            default -> throw new SystemException("数值字段不支持的过滤操作符: " + op);
+        };
+    }
+
+    private static List<Object> toValues(Object value) {
+        List<Object> values = new ArrayList<>();
+        if (value instanceof Collection<?> collection) {
+            values.addAll(collection);
+        } else if (value != null) {
+            values.add(value);
+        }
+        return values;
+    }
+
+    private static double toEpochDay(Object value) {
+        String text = String.valueOf(value).trim();
+        try {
+            return LocalDate.parse(text.length() > 10 ? text.substring(0, 10) : text).toEpochDay();
+        } catch (DateTimeParseException e) {
+            throw new SystemException("无法解析时间过滤值: " + value);
+        }
+    }
+
+    private static double toNumber(Object value) {
+        if (value instanceof Number number) {
+            return number.doubleValue();
+        }
+        try {
+            return Double.parseDouble(String.valueOf(value).trim());
+        } catch (NumberFormatException e) {
+            throw new SystemException("无法解析数值过滤值: " + value);
+        }
+    }
+
+    private static Pattern likePattern(String like) {
+        StringBuilder regex = new StringBuilder();
+        for (char c : like.toCharArray()) {
+            switch (c) {
+                case '%' -> regex.append(".*");
+                case '_' -> regex.append('.');
+                default -> regex.append(Pattern.quote(String.valueOf(c)));
+            }
+        }
+        return Pattern.compile(regex.toString(), Pattern.DOTALL);
+    }
+}
@@ -0,0 +1,372 @@
+package cn.webank.dosconfig.service.metric.cube;
+
+import cn.webank.dosconfig.entity.FieldOrder;
+import cn.webank.dosconfig.entity.TimeDimension;
+import cn.webank.dosconfig.entity.rmb.Req_04302590_01;
+import cn.webank.dosconfig.enums.DateGranularity;
+import cn.webank.dosconfig.exception.SystemException;
+import cn.webank.dosconfig.service.MetricRow;
+import cn.webank.dosconfig.service.MetricRowVisitor;
+import cn.webank.dosconfig.service.MetricService;
+import cn.webank.dosconfig.service.attribution.MetricQuerySupport;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 基于内存列式事实表的指标服务实现，用于压测与扩展性验证，替代外部指标联机分析服务。
+ * 支持请求中的指标、维度、过滤条件、时间维度粒度、排序与条数限制；时间维度取值输出为所在周期的起始日期（yyyy-MM-dd）。
+ * 可配置固定延迟、随机抖动与错误率，用于模拟下游变慢或不稳定。
+ */
+public class InMemoryCubeMetricService implements MetricService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(InMemoryCubeMetricService.class);
+
+    private final CubeFactTable table;
+    private final long latencyMillis;
+    private final long latencyJitterMillis;
+    private final double errorRate;
+
+    public InMemoryCubeMetricService(CubeFactTable table, Duration latency, Duration latencyJitter, double errorRate) {
+        this.table = table;
+        this.latencyMillis = Math.max(latency.toMillis(), 0L);
+        this.latencyJitterMillis = Math.max(latencyJitter.toMillis(), 0L);
+        this.errorRate = errorRate;
+    }
+
+    @Override
+    public List<Map<String, Object>> queryResultList(Req_04302590_01 req) {
+        Aggregation aggregation = aggregate(req);
+        List<Map<String, Object>> rows = new ArrayList<>(aggregation.groups.size());
+        for (Group group : aggregation.groups) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            if (aggregation.groupByTime) {
+                row.put(MetricQuerySupport.TIME_DIMENSION_FIELD, aggregation.periodLabel(group));
+            }
+            for (int i = 0; i < aggregation.groupDimensions.size(); i++) {
+                row.put(aggregation.groupDimensions.get(i), aggregation.dictionaries[i][group.codes()[i]]);
+            }
+            for (int m = 0; m < aggregation.metrics.size(); m++) {
+                row.put(aggregation.metrics.get(m), group.sums()[m]);
+            }
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    /**
+     * 流式查询：在聚合分组上移动同一个行游标逐行回调，不为结果行创建 Map，指标值直接读取分组的 double 累加值。
+     * 分组、排序与截断与 {@link #queryResultList} 共用同一套逻辑，两者返回的行与顺序一致。
+     */
+    @Override
+    public int queryRows(Req_04302590_01 req, MetricRowVisitor visitor) {
+        Aggregation aggregation = aggregate(req);
+        GroupRow cursor = new GroupRow(aggregation);
+        for (Group group : aggregation.groups) {
+            visitor.visit(cursor.reset(group));
+        }
+        return aggregation.groups.size();
+    }
+
+    /**
+     * 按请求过滤、分组累加事实表，再按请求排序并截断。
+     */
+    private Aggregation aggregate(Req_04302590_01 req) {
+        injectFaults();
+        List<String> metrics = req.getMetrics();
+        if (metrics == null || metrics.isEmpty()) {
+            throw new SystemException("指标ID列表不能为空");
+        }
+        double[][] metricColumns = new double[metrics.size()][];
+        for (int i = 0; i < metrics.size(); i++) {
+            metricColumns[i] = table.metric(metrics.get(i));
+            if (metricColumns[i] == null) {
+                throw new SystemException("指标不存在: " + metrics.get(i));
+            }
+        }
+
+        TimeDimension timeDimension = req.getTimeDimensions() == null || req.getTimeDimensions().isEmpty()
+                ? null : req.getTimeDimensions().get(0);
+        List<String> groupDimensions = new ArrayList<>();
+        boolean groupByTime = timeDimension != null;
+        if (req.getDimensions() != null) {
+            for (String dimension : req.getDimensions()) {
+                if (MetricQuerySupport.TIME_DIMENSION_FIELD.equals(dimension)) {
+                    groupByTime = true;
+                } else if (table.hasDimension(dimension)) {
+                    groupDimensions.add(dimension);
+                } else {
+                    throw new SystemException("维度不存在: " + dimension);
+                }
+            }
+        }
+        DateGranularity granularity = resolveGranularity(timeDimension);
+        int startDay = Integer.MIN_VALUE;
+        int endDay = Integer.MAX_VALUE;
+        if (timeDimension != null && timeDimension.getDateRange() != null && timeDimension.getDateRange().size() == 2) {
+            startDay = (int) LocalDate.parse(timeDimension.getDateRange().get(0)).toEpochDay();
+            endDay = (int) LocalDate.parse(timeDimension.getDateRange().get(1)).toEpochDay();
+        }
+
+        int[][] dimensionCodes = new int[groupDimensions.size()][];
+        for (int i = 0; i < groupDimensions.size(); i++) {
+            dimensionCodes[i] = table.dimension(groupDimensions.get(i)).codes();
+        }
+        CubeFilterCompiler.RowPredicate filter = CubeFilterCompiler.compile(req.getFilters(), table);
+        Map<Integer, Integer> periodCache = new HashMap<>();
+        Map<GroupKey, double[]> groups = new LinkedHashMap<>();
+        GroupKey probe = new GroupKey(new int[groupDimensions.size() + 1]);
+
+        for (int row = 0; row < table.rowCount(); row++) {
+            int day = table.epochDay(row);
+            if (day < startDay || day > endDay || !filter.test(row)) {
+                continue;
+            }
+            int[] codes = probe.codes();
+            for (int i = 0; i < dimensionCodes.length; i++) {
+                codes[i] = dimensionCodes[i][row];
+            }
+            codes[codes.length - 1] = groupByTime
+                    ? periodCache.computeIfAbsent(day, d -> periodStart(d, granularity))
+                    : 0;
+            double[] sums = groups.get(probe);
+            if (sums == null) {
+                sums = new double[metrics.size()];
+                groups.put(new GroupKey(codes.clone()), sums);
+            }
+            for (int m = 0; m < metricColumns.length; m++) {
+                sums[m] += metricColumns[m][row];
+            }
+        }
+
+        Aggregation aggregation = new Aggregation(metrics, groupDimensions, groupByTime);
+        List<Group> rows = new ArrayList<>(groups.size());
+        groups.forEach((key, sums) -> rows.add(new Group(key.codes(), sums)));
+        if (req.getSort() != null && !req.getSort().isEmpty()) {
+            rows.sort(buildComparator(req.getSort(), aggregation));
+        }
+        int limit = req.getLimit() != null ? req.getLimit() : MetricQuerySupport.MAX_ROWS_PER_REQUEST;
+        aggregation.groups = rows.size() > limit ? rows.subList(0, limit) : rows;
+        LOG.debug("内存指标查询完成: metrics={}, dimensions={}, groups={}, returned={}",
+                metrics, groupDimensions, groups.size(), aggregation.groups.size());
+        return aggregation;
+    }
+
+    public CubeFactTable table() {
+        return table;
+    }
+
+    private void injectFaults() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long delay = latencyMillis + (latencyJitterMillis > 0 ? random.nextLong(latencyJitterMillis + 1) : 0L);
+        if (delay > 0) {
+            try {
+                Thread.sleep(delay);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new SystemException("模拟指标查询被中断");
+            }
+        }
+        if (errorRate > 0 && random.nextDouble() < errorRate) {
+            throw new SystemException("模拟指标服务异常");
+        }
+    }
+
+    private DateGranularity resolveGranularity(TimeDimension timeDimension) {
+        if (timeDimension == null || timeDimension.getGranularity() == null) {
+            return DateGranularity.DAY;
+        }
+        try {
+            return DateGranularity.valueOf(timeDimension.getGranularity().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new SystemException("不支持的时间粒度: " + timeDimension.getGranularity());
+        }
+    }
+
+    private int periodStart(int epochDay, DateGranularity granularity) {
+        LocalDate date = LocalDate.ofEpochDay(epochDay);
+        return (int) MetricQuerySupport.normalizeRangeStart(date, granularity).toEpochDay();
+    }
+
+    /**
+     * 按排序字段比较分组：时间维度按周期起始日比较（与 yyyy-MM-dd 字符串顺序一致），维度按字典取值比较，
+     * 指标按累加值比较；不在结果中的字段视为相等。
+     */
+    private Comparator<Group> buildComparator(List<FieldOrder> orders, Aggregation aggregation) {
+        Comparator<Group> comparator = null;
+        for (FieldOrder order : orders) {
+            Integer slot = aggregation.slotOf(order.getField());
+            Comparator<Group> fieldComparator;
+            if (slot == null) {
+                fieldComparator = (a, b) -> 0;
+            } else if (slot == Aggregation.TIME_SLOT) {
+                fieldComparator = Comparator.comparingInt(group -> group.codes()[group.codes().length - 1]);
+            } else if (slot < aggregation.dictionaries.length) {
+                String[] dictionary = aggregation.dictionaries[slot];
+                fieldComparator = Comparator.comparing(group -> dictionary[group.codes()[slot]]);
+            } else {
+                int metric = slot - aggregation.dictionaries.length;
+                fieldComparator = (a, b) -> Double.compare(a.sums()[metric], b.sums()[metric]);
+            }
+            if ("desc".equalsIgnoreCase(order.getOrder())) {
+                fieldComparator = fieldComparator.reversed();
+            }
+            comparator = comparator == null ? fieldComparator : comparator.thenComparing(fieldComparator);
+        }
+        return comparator;
+    }
+
+    /**
+     * 分组键：各分组维度的字典编码 + 周期起始 epochDay。
+     */
+    private record GroupKey(int[] codes) {
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof GroupKey other && Arrays.equals(codes, other.codes);
+        }
+
+        @Override
+        public int hashCode() {
+            return Arrays.hashCode(codes);
+        }
+    }
+
+    /**
+     * 聚合后的结果分组：各分组维度的字典编码 + 周期起始 epochDay，及各指标的累加值。
+     */
+    private record Group(int[] codes, double[] sums) {
+    }
+
+    /**
+     * 单次查询的聚合结果与字段定位信息，字段按槽位编号：时间维度为 {@link #TIME_SLOT}，
+     * 分组维度为 0 ~ 维度数 - 1，指标紧随其后。
+     */
+    private final class Aggregation {
+
+        private static final int TIME_SLOT = -1;
+
+        private final List<String> metrics;
+        private final List<String> groupDimensions;
+        private final boolean groupByTime;
+        private final String[][] dictionaries;
+        private final Map<String, Integer> slots = new HashMap<>();
+        private final Map<Integer, String> periodLabels = new HashMap<>();
+        private List<Group> groups;
+
+        private Aggregation(List<String> metrics, List<String> groupDimensions, boolean groupByTime) {
+            this.metrics = metrics;
+            this.groupDimensions = groupDimensions;
+            this.groupByTime = groupByTime;
+            this.dictionaries = new String[groupDimensions.size()][];
+            // 与 Map 结果行的写入顺序一致：同名字段以后写入者为准
+            if (groupByTime) {
+                slots.put(MetricQuerySupport.TIME_DIMENSION_FIELD, TIME_SLOT);
+            }
+            for (int i = 0; i < groupDimensions.size(); i++) {
+                dictionaries[i] = table.dimension(groupDimensions.get(i)).dictionary();
+                slots.put(groupDimensions.get(i), i);
+            }
+            for (int m = 0; m < metrics.size(); m++) {
+                slots.put(metrics.get(m), dictionaries.length + m);
+            }
+        }
+
+        private Integer slotOf(String field) {
+            return slots.get(field);
+        }
+
+        private String periodLabel(Group group) {
+            int epochDay = group.codes()[group.codes().length - 1];
+            return periodLabels.computeIfAbsent(epochDay, day -> LocalDate.ofEpochDay(day).toString());
+        }
+
+        private Object value(Group group, String field) {
+            Integer slot = slots.get(field);
+            if (slot == null) {
+                return null;
+            }
+            if (slot == TIME_SLOT) {
+                return periodLabel(group);
+            }
+            if (slot < dictionaries.length) {
+                return dictionaries[slot][group.codes()[slot]];
+            }
+            return group.sums()[slot - dictionaries.length];
+        }
+    }
+
+    /**
+     * 聚合分组上的可复用行游标，指标字段直接返回 double 累加值，不装箱。
+     */
+    private static final class GroupRow implements MetricRow {
+
+        private final Aggregation aggregation;
+        private Group group;
+
+        private GroupRow(Aggregation aggregation) {
+            this.aggregation = aggregation;
+        }
+
+        private GroupRow reset(Group group) {
+            this.group = group;
+            return this;
+        }
+
+        @Override
+        public Object get(String field) {
+            return aggregation.value(group, field);
+        }
+
+        @Override
+        public boolean isNull(String field) {
+            return aggregation.slotOf(field) == null;
+        }
+
+        @Override
+        public double getDouble(String field) {
+            Integer slot = aggregation.slotOf(field);
+            if (slot != null && slot >= aggregation.dictionaries.length) {
+                return group.sums()[slot - aggregation.dictionaries.length];
+            }
+            String text = slot == null ? null : get(field).toString();
+            if (text == null || text.isBlank()) {
+                return 0D;
+            }
+            try {
+                return Double.parseDouble(text);
+            } catch (NumberFormatException ex) {
+                throw new SystemException("无法解析指标值: " + text);
+            }
+        }
+
+        @Override
+        public BigDecimal getDecimal(String field) {
+            Integer slot = aggregation.slotOf(field);
+            if (slot != null && slot >= aggregation.dictionaries.length) {
+                return BigDecimal.valueOf(group.sums()[slot - aggregation.dictionaries.length]);
+            }
+            String text = slot == null ? null : get(field).toString();
+            if (text == null || text.isBlank()) {
+                return BigDecimal.ZERO;
+            }
+            try {
+                return new BigDecimal(text);
+            } catch (NumberFormatException ex) {
+                throw new SystemException("无法解析指标值: " + text);
+            }
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package cn.webank.dosconfig.service.metric.replay;
+
+import cn.webank.dosconfig.entity.rmb.Req_04302590_01;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 一次指标查询的录制记录，录制文件中每行一条（gzip 压缩的 JSON Lines）。
+ *
+ * @param key           请求规范化指纹，记录中没有原始请求时回放按此匹配
+ * @param recordedAt    录制时间（epoch 毫秒）
+ * @param latencyMillis 下游调用实际耗时
+ * @param request       原始请求
+ * @param rows          返回结果，调用失败时为 null
+ * @param error         失败信息，调用成功时为 null
+ */
+public record MetricExchange(String key,
+                             long recordedAt,
+                             long latencyMillis,
+                             Req_04302590_01 request,
+                             List<Map<String, Object>> rows,
+                             String error) {
+}
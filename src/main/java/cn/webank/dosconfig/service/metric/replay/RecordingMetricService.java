@@ -0,0 +1,96 @@
+package cn.webank.dosconfig.service.metric.replay;
+
+import cn.webank.dosconfig.entity.rmb.Req_04302590_01;
+import cn.webank.dosconfig.exception.SystemException;
+import cn.webank.dosconfig.service.MetricService;
+import cn.webank.dosconfig.service.metric.MetricQueryKey;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 指标查询录制装饰器：透传调用的同时把请求、结果与实际耗时追加写入 gzip 压缩的 JSON Lines 文件，
+ * 供 {@link ReplayMetricService} 离线回放。每条记录写完即同步刷盘，进程异常退出时已写入的记录仍可读取。
+ * 文件已存在时以新的 gzip 成员追加在末尾，重启后不会覆盖之前的录制，回放时 {@link java.util.zip.GZIPInputStream} 按顺序读取全部成员；
+ * 上次进程异常退出留下未结束的成员时，其后追加的记录无法读取，应换用新文件。录制失败只记日志，不影响正常查询。
+ */
+public class RecordingMetricService implements MetricService, Closeable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(RecordingMetricService.class);
+
+    private final MetricService delegate;
+    private final Path path;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final BufferedWriter writer;
+    private long recordCount;
+
+    public RecordingMetricService(MetricService delegate, Path path) {
+        this.delegate = delegate;
+        this.path = path;
+        try {
+            Path parent = path.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            this.writer = new BufferedWriter(new OutputStreamWriter(
+                    new GZIPOutputStream(Files.newOutputStream(path, StandardOpenOption.CREATE, StandardOpenOption.APPEND), true), StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new SystemException("创建指标录制文件失败: " + path);
+        }
+        LOG.info("指标查询录制已开启: path={}", path);
+    }
+
+    @Override
+    public List<Map<String, Object>> queryResultList(Req_04302590_01 req) {
+        long start = System.nanoTime();
+        try {
+            List<Map<String, Object>> rows = delegate.queryResultList(req);
+            record(req, start, rows, null);
+            return rows;
+        } catch (RuntimeException e) {
+            record(req, start, null, String.valueOf(e.getMessage()));
+            throw e;
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        writer.close();
+        LOG.info("指标查询录制结束: path={}, records={}", path, recordCount);
+    }
+
+    private void record(Req_04302590_01 req, long startNanos, List<Map<String, Object>> rows, String error) {
+        MetricExchange exchange = new MetricExchange(
+                MetricQueryKey.of(req).canonical(),
+                System.currentTimeMillis(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos),
+                req,
+                rows,
+                error
+        );
+        try {
+            String line = objectMapper.writeValueAsString(exchange);
+            synchronized (this) {
+                writer.write(line);
+                writer.newLine();
+                writer.flush();
+                recordCount++;
+            }
+        } catch (IOException e) {
+            LOG.warn("写入指标录制记录失败: path={}", path, e);
+        }
+    }
+}
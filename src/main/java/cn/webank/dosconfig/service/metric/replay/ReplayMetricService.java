@@ -0,0 +1,138 @@
+package cn.webank.dosconfig.service.metric.replay;
+
+import cn.webank.dosconfig.entity.rmb.Req_04302590_01;
+import cn.webank.dosconfig.exception.SystemException;
+import cn.webank.dosconfig.service.MetricService;
+import cn.webank.dosconfig.service.metric.MetricQueryKey;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * 回放 {@link RecordingMetricService} 录制的指标查询：按请求指纹匹配录制结果，并按录制耗时（乘以缩放系数）延迟返回，
+ * 录制时失败的请求回放时同样抛出异常。同一指纹有多条记录时按录制顺序轮流返回。
+ * 找不到匹配记录说明请求形态与录制时不一致，直接报错，不做近似匹配。
+ */
+public class ReplayMetricService implements MetricService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ReplayMetricService.class);
+
+    private final Map<String, List<MetricExchange>> exchanges;
+    private final Map<String, AtomicInteger> cursors = new HashMap<>();
+    private final double latencyScale;
+    private final LongAdder missCount = new LongAdder();
+
+    public ReplayMetricService(List<Path> paths, double latencyScale) {
+        this.latencyScale = Math.max(latencyScale, 0D);
+        this.exchanges = new HashMap<>();
+        int total = 0;
+        for (Path path : paths) {
+            total += load(path);
+        }
+        exchanges.keySet().forEach(key -> cursors.put(key, new AtomicInteger()));
+        LOG.info("指标回放数据加载完成: files={}, records={}, distinctRequests={}", paths, total, exchanges.size());
+    }
+
+    @Override
+    public List<Map<String, Object>> queryResultList(Req_04302590_01 req) {
+        String key = MetricQueryKey.of(req).canonical();
+        List<MetricExchange> candidates = exchanges.get(key);
+        if (candidates == null) {
+            missCount.increment();
+            throw new SystemException("回放数据中不存在该指标请求: " + key);
+        }
+        MetricExchange exchange = candidates.get(Math.floorMod(cursors.get(key).getAndIncrement(), candidates.size()));
+        long delay = Math.round(exchange.latencyMillis() * latencyScale);
+        if (delay > 0) {
+            try {
+                Thread.sleep(delay);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new SystemException("指标回放被中断");
+            }
+        }
+        if (exchange.error() != null) {
+            throw new SystemException(exchange.error());
+        }
+        List<Map<String, Object>> rows = new ArrayList<>();
+        if (exchange.rows() != null) {
+            exchange.rows().forEach(row -> rows.add(new LinkedHashMap<>(row)));
+        }
+        return rows;
+    }
+
+    /**
+     * 未匹配到录制记录的请求数。
+     */
+    public long missCount() {
+        return missCount.sum();
+    }
+
+    private int load(Path path) {
+        ObjectMapper objectMapper = new ObjectMapper()
+                .configure(DeserializationFeature.USE_BIG_DECIMAL_FOR_FLOATS, true)
+                .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+        int count = 0;
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new ByteArrayInputStream(decompress(path)), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                MetricExchange exchange;
+                try {
+                    exchange = objectMapper.readValue(line, MetricExchange.class);
+                } catch (JsonProcessingException e) {
+                    LOG.warn("跳过无法解析的回放记录: path={}, line={}", path, count + 1);
+                    continue;
+                }
+                // 有原始请求时按当前指纹规则重新计算，指纹格式调整后旧录制仍可匹配
+                String key = exchange.request() != null ? MetricQueryKey.of(exchange.request()).canonical() : exchange.key();
+                exchanges.computeIfAbsent(key, k -> new ArrayList<>()).add(exchange);
+                count++;
+            }
+        } catch (IOException e) {
+            throw new SystemException("读取指标回放文件失败: " + path);
+        }
+        return count;
+    }
+
+    /**
+     * 解压录制文件。录制进程未正常关闭时 gzip 缺少结尾，读到截断处即停止，已同步刷出的记录仍然保留。
+     */
+    private byte[] decompress(Path path) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(path))) {
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+            }
+        } catch (EOFException e) {
+            LOG.warn("指标回放文件未正常结束，忽略截断部分: path={}", path);
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,158 @@
+package cn.webank.dosconfig.entity;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * {@link FilterConditionNormalizer} 各条化简规则的单元测试。
+ */
+class FilterConditionNormalizerTest {
+
+    private static final FilterCondition CITY = field("dim_user.city", "EQ", "shenzhen");
+    private static final FilterCondition CHANNEL = field("dim_user.channel", "EQ", "app");
+    private static final FilterCondition PRODUCT = field("dim_user.product", "EQ", "loan");
+
+    @Test
+    void nullAndEmptyConditionsNormalizeToNoFilter() {
+        assertNull(FilterConditionNormalizer.normalize(null));
+        assertNull(FilterConditionNormalizer.normalize(FilterCondition.and(List.of())));
+        assertNull(FilterConditionNormalizer.normalize(FilterCondition.and(List.of(new FilterCondition()))));
+    }
+
+    @Test
+    void nestedSameRelationIsFlattened() {
+        ImmutableFilterCondition nested = FilterConditionNormalizer.normalize(
+                FilterCondition.and(List.of(CITY, FilterCondition.and(List.of(CHANNEL, PRODUCT)))));
+        ImmutableFilterCondition flat = FilterConditionNormalizer.normalize(
+                FilterCondition.and(List.of(CITY, CHANNEL, PRODUCT)));
+
+        assertSame(flat, nested);
+        assertEquals(FilterCondition.RELATION_AND, nested.getRelation());
+        assertEquals(3, nested.getSubConditions().size());
+    }
+
+    @Test
+    void nestedDifferentRelationIsKept() {
+        ImmutableFilterCondition normalized = FilterConditionNormalizer.normalize(
+                FilterCondition.and(List.of(CITY, FilterCondition.or(List.of(CHANNEL, PRODUCT)))));
+
+        assertEquals(FilterCondition.RELATION_AND, normalized.getRelation());
+        assertEquals(2, normalized.getSubConditions().size());
+        assertTrue(normalized.getSubConditions().stream()
+                .anyMatch(child -> FilterCondition.RELATION_OR.equals(child.getRelation())));
+    }
+
+    @Test
+    void duplicatePredicatesAndChildOrderDoNotMatter() {
+        ImmutableFilterCondition first = FilterConditionNormalizer.normalize(
+                FilterCondition.and(List.of(CITY, CHANNEL)));
+        ImmutableFilterCondition second = FilterConditionNormalizer.normalize(
+                FilterCondition.and(List.of(CHANNEL, CITY, field("dim_user.channel", "EQ", "app"))));
+
+        assertSame(first, second);
+        assertEquals(2, second.getSubConditions().size());
+    }
+
+    @Test
+    void singleChildJunctionIsUnwrapped() {
+        ImmutableFilterCondition normalized = FilterConditionNormalizer.normalize(
+                FilterCondition.or(List.of(FilterCondition.and(List.of(CITY)))));
+
+        assertSame(ImmutableFilterCondition.of(CITY), normalized);
+    }
+
+    @Test
+    void inValuesAreSortedAndDeduplicated() {
+        ImmutableFilterCondition normalized = FilterConditionNormalizer.normalize(
+                field("dim_user.city", "IN", List.of("shenzhen", "beijing", "shenzhen")));
+
+        assertEquals(List.of("beijing", "shenzhen"), normalized.getValue());
+        assertSame(normalized, FilterConditionNormalizer.normalize(
+                field("dim_user.city", "IN", List.of("beijing", "shenzhen"))));
+    }
+
+    @Test
+    void andWithEmptyInFoldsToFalseWitness() {
+        FilterCondition emptyIn = field("dim_user.city", "IN", List.of());
+
+        ImmutableFilterCondition normalized = FilterConditionNormalizer.normalize(
+                FilterCondition.and(List.of(CHANNEL, emptyIn)));
+
+        // 恒假不能返回 null（null 表示不过滤），保留 IN [] 作为等价的恒假谓词下发
+        assertNotNull(normalized);
+        assertSame(ImmutableFilterCondition.of(emptyIn), normalized);
+    }
+
+    @Test
+    void orWithEmptyInDropsTheFalseBranch() {
+        ImmutableFilterCondition normalized = FilterConditionNormalizer.normalize(
+                FilterCondition.or(List.of(CHANNEL, field("dim_user.city", "IN", List.of()))));
+
+        assertSame(ImmutableFilterCondition.of(CHANNEL), normalized);
+    }
+
+    @Test
+    void orOfOnlyFalseBranchesKeepsAWitness() {
+        FilterCondition emptyIn = field("dim_user.city", "IN", List.of());
+
+        ImmutableFilterCondition normalized = FilterConditionNormalizer.normalize(
+                FilterCondition.or(List.of(emptyIn, field("dim_user.channel", "IN", List.of()))));
+
+        assertSame(ImmutableFilterCondition.of(emptyIn), normalized);
+    }
+
+    @Test
+    void orWithEmptyNotInFoldsToNoFilter() {
+        assertNull(FilterConditionNormalizer.normalize(
+                FilterCondition.or(List.of(CHANNEL, field("dim_user.city", "NOT_IN", List.of())))));
+    }
+
+    @Test
+    void andWithEmptyNotInDropsTheTrueBranch() {
+        ImmutableFilterCondition normalized = FilterConditionNormalizer.normalize(
+                FilterCondition.and(List.of(CHANNEL, field("dim_user.city", "NOT_IN", List.of()))));
+
+        assertSame(ImmutableFilterCondition.of(CHANNEL), normalized);
+    }
+
+    @Test
+    void doubleNegationIsRemoved() {
+        ImmutableFilterCondition normalized = FilterConditionNormalizer.normalize(
+                not(not(FilterCondition.and(List.of(CHANNEL, CITY)))));
+
+        assertSame(FilterConditionNormalizer.normalize(FilterCondition.and(List.of(CITY, CHANNEL))), normalized);
+    }
+
+    @Test
+    void singleNegationIsKeptWithNormalizedChild() {
+        ImmutableFilterCondition normalized = FilterConditionNormalizer.normalize(
+                not(FilterCondition.and(List.of(CITY))));
+
+        assertEquals(FilterCondition.RELATION_NOT, normalized.getRelation());
+        assertSame(ImmutableFilterCondition.of(CITY), normalized.getSubConditions().get(0));
+    }
+
+    private static FilterCondition field(String field, String op, Object value) {
+        FilterCondition condition = new FilterCondition();
+        condition.setNodeType(FilterCondition.FIELD_NODE);
+        condition.setField(field);
+        condition.setOp(op);
+        condition.setValue(value);
+        return condition;
+    }
+
+    private static FilterCondition not(FilterCondition child) {
+        FilterCondition condition = new FilterCondition();
+        condition.setNodeType(FilterCondition.RELATION_NODE);
+        condition.setRelation(FilterCondition.RELATION_NOT);
+        condition.setSubConditions(List.of(child));
+        return condition;
+    }
+}